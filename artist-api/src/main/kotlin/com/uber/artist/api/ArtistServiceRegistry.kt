@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.api
+
+import java.io.File
+import java.net.URLClassLoader
+import java.util.ServiceLoader
+import java.util.WeakHashMap
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Discovers the services Artist loads through [ServiceLoader] (stencil providers, traits and trait configuration) and
+ * keeps the discovered implementation classes for the class loader they were loaded from. Each service type is
+ * therefore only scanned for once per class loader, which lets repeated lookups within a generation and generations in
+ * the same long-lived process (such as a Gradle daemon) skip reading the service files and loading the classes again.
+ *
+ * Every lookup creates new instances though. Generation mutates the stencils providers return, so concurrent
+ * generations in one process must never share provider instances.
+ *
+ * Services are looked up in the context class loader, like [ServiceLoader.load] does. [refresh] should be called at the
+ * start of every generation, so that services loaded before the classpath changed are discovered again.
+ */
+object ArtistServiceRegistry {
+
+  private val entries = WeakHashMap<ClassLoader, Entry>()
+
+  /**
+   * Creates new instances of the implementations of the service [type].
+   *
+   * @return The located implementations, in the order [ServiceLoader] finds them.
+   */
+  fun <T> load(type: Class<T>): List<T> {
+    val classLoader = contextClassLoader(type)
+    val classes = synchronized(entries) {
+      entries.getOrPut(classLoader) { Entry(classpathHash(classLoader)) }.classes
+    }
+    return classes.getOrPut(type) { discover(type, classLoader) }
+        .map { type.cast(it.getDeclaredConstructor().newInstance()) }
+  }
+
+  /**
+   * Drops the service classes loaded from the context class loader if its classpath changed since they were loaded.
+   */
+  fun refresh() {
+    val classLoader = contextClassLoader(ArtistServiceRegistry::class.java)
+    val classpathHash = classpathHash(classLoader)
+    synchronized(entries) {
+      if (entries[classLoader]?.classpathHash != classpathHash) {
+        entries[classLoader] = Entry(classpathHash)
+      }
+    }
+  }
+
+  /**
+   * Reads the provider configuration files of [type] the way [ServiceLoader] does, without instantiating the providers.
+   * Jar caches are bypassed, so that jars rebuilt in place are read again.
+   */
+  private fun discover(type: Class<*>, classLoader: ClassLoader): List<Class<*>> {
+    return classLoader.getResources("META-INF/services/${type.name}").toList()
+        .flatMap { url ->
+          val connection = url.openConnection().apply { useCaches = false }
+          connection.getInputStream().bufferedReader(Charsets.UTF_8).use { it.readLines() }
+        }
+        .map { it.substringBefore('#').trim() }
+        .filter { it.isNotEmpty() }
+        .distinct()
+        .map { Class.forName(it, false, classLoader).asSubclass(type) }
+  }
+
+  private fun contextClassLoader(type: Class<*>): ClassLoader {
+    return Thread.currentThread().contextClassLoader ?: type.classLoader ?: ClassLoader.getSystemClassLoader()
+  }
+
+  /**
+   * Hashes the jars and directories visible to [classLoader], including when they were last modified, so that jars
+   * rebuilt in place also change the hash.
+   */
+  private fun classpathHash(classLoader: ClassLoader): Int {
+    return generateSequence(classLoader) { it.parent }
+        .filterIsInstance<URLClassLoader>()
+        .flatMap { it.urLs.asSequence() }
+        .map { url ->
+          val file = if (url.protocol == "file") File(url.path) else null
+          "$url:${file?.lastModified()}:${file?.length()}"
+        }
+        .toList()
+        .hashCode()
+  }
+
+  private class Entry(val classpathHash: Int) {
+    val classes: MutableMap<Class<*>, List<Class<*>>> = ConcurrentHashMap()
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.api
+
+/**
+ * A [Trait] that reads attributes can implement [AttrsTrait] to share a single `TypedArray` with the stencil and the
+ * other traits of a view, instead of obtaining and recycling one of its own on every view construction.
+ *
+ * The attributes of all [AttrsTrait]s of a view are merged into one array of attributes, which `init()` passes to a
+ * single `obtainStyledAttributes` call after every trait's [Trait.generateFor] ran.
+ */
+interface AttrsTrait<OutputType, FunType, ClassType, CodeBlock> {
+
+  /**
+   * The attributes this trait reads for the view named [sourceType].
+   */
+  fun attrs(sourceType: String): Set<ViewAttr>
+
+  /**
+   * Generates the code reading this trait's attributes. It can safely assume the following values exist:
+   *   - context: Context
+   *   - attrs: AttributeSet
+   *   - a: TypedArray, holding the attributes of [attrs] at the indices named by [ViewAttr.indexName]
+   *
+   * Should *not* recycle `a`.
+   */
+  fun attrsHook(type: OutputType, initMethod: FunType, rClass: ClassType, sourceType: String): CodeBlock?
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.api
+
+/**
+ * A [Trait] can implement [FinishingTrait] to generate code once every trait of a view contributed to it, such as a
+ * member that collects what several traits or calls added.
+ *
+ * Like [Trait.generateFor], [finishFor] may be called concurrently for different views.
+ */
+interface FinishingTrait<OutputType, FunType, ClassType> {
+
+  /**
+   * Finishes this trait's code in the [ViewStencil]'s type, after [Trait.generateFor] ran for every trait of the view.
+   * The [memberCache] of the generation holds the state the traits kept for the view, see
+   * [TraitMemberCache.getViewState].
+   */
+  fun finishFor(type: OutputType, initMethod: FunType, rClass: ClassType, sourceType: String, memberCache: TraitMemberCache)
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.api
+
+/**
+ * Generates Artist's views with the `artist-processor` annotation processor, as an alternative to the Gradle plugin.
+ * The stencil providers and traits are looked up on the annotation processor path.
+ *
+ * Annotate a single class of the module that should contain the generated views, e.g. its `package-info` sibling or
+ * any other class. All views are generated for that class, so the processor is isolating and takes part in incremental
+ * compilation.
+ */
+@Retention(AnnotationRetention.SOURCE)
+@Target(AnnotationTarget.CLASS)
+annotation class GenerateViews(
+    /**
+     * The prefix of the generated view names.
+     */
+    val viewNamePrefix: String,
+    /**
+     * The package of the generated views. Defaults to the package of the annotated class.
+     */
+    val packageName: String = "",
+    /**
+     * The package of the R class. Defaults to [packageName].
+     */
+    val rPackageName: String = "",
+    /**
+     * The fully qualified name of an interface every generated view implements, if any.
+     */
+    val superinterface: String = "",
+    /**
+     * Whether to format the generated sources.
+     */
+    val formatSource: Boolean = true
+)
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.api
+
+/**
+ * A [Trait] can implement [HotMethodsTrait] to name the methods it generates that run while a screen starts, such as
+ * the listeners or observables a screen sets up right after inflating its views.
+ *
+ * These methods are added to the baseline profile of the generated views, together with their constructors, `init()`
+ * and the methods that run on every frame, so that they are compiled ahead of time instead of being interpreted.
+ */
+interface HotMethodsTrait {
+
+  /**
+   * The names of the hot methods this trait generates for the view named [sourceType].
+   */
+  fun hotMethods(sourceType: String): Set<String>
+}
@@ -16,11 +16,9 @@
 
 package com.uber.artist.api
 
-import java.util.ServiceLoader
-
 class JavaTraitService private constructor() : TraitService<JavaTrait> {
 
-  private val serviceLoader = ServiceLoader.load(JavaTrait::class.java)
+  private val traits = ArtistServiceRegistry.load(JavaTrait::class.java)
 
   /**
    * Gets the [Trait] implementations loaded.
@@ -28,10 +26,7 @@ class JavaTraitService private constructor() : TraitService<JavaTrait> {
    * @return The located [Trait]s.
    */
   override fun get(): Set<JavaTrait> {
-    val traits = LinkedHashSet<JavaTrait>()
-    serviceLoader.iterator()
-        .forEach { traits.add(it) }
-    return traits
+    return LinkedHashSet(traits)
   }
 
   companion object {
@@ -31,6 +31,7 @@ class JavaTypeNames {
       val Drawable: ClassName = ClassName.get("android.graphics.drawable", "Drawable")
       val Gravity: ClassName = ClassName.get("android.view", "Gravity")
       val GravityCompat: ClassName = ClassName.get("androidx.core.view", "GravityCompat")
+      val LayoutInflaterFactory2: ClassName = ClassName.get("android.view", "LayoutInflater", "Factory2")
       val MenuItem: ClassName = ClassName.get("android.view", "MenuItem")
       val Rect: ClassName = ClassName.get("android.graphics", "Rect")
       val TabLayout: ClassName = ClassName.get("com.google.android.material.tabs", "TabLayout")
@@ -16,11 +16,9 @@
 
 package com.uber.artist.api
 
-import java.util.ServiceLoader
-
 class JavaViewStencilService private constructor() : ViewStencilService<JavaViewStencil, JavaTrait> {
 
-  private val serviceLoader = ServiceLoader.load(JavaViewStencilProvider::class.java)
+  private val providers = ArtistServiceRegistry.load(JavaViewStencilProvider::class.java)
 
   /**
    * Gets the [ViewStencil] implementations loaded.
@@ -29,8 +27,7 @@ class JavaViewStencilService private constructor() : ViewStencilService<JavaView
    */
   override fun getStencils(): Set<JavaViewStencil> {
     val stencils = LinkedHashSet<JavaViewStencil>()
-    serviceLoader.iterator()
-        .forEach { stencils.addAll(it.stencils()) }
+    providers.forEach { stencils.addAll(it.stencils()) }
     return stencils
   }
 
@@ -41,8 +38,7 @@ class JavaViewStencilService private constructor() : ViewStencilService<JavaView
    */
   override fun getGlobalTraits(): Set<Class<out JavaTrait>> {
     val globalTraits = LinkedHashSet<Class<out JavaTrait>>()
-    serviceLoader.iterator()
-        .forEach { globalTraits.addAll(it.globalTraits()) }
+    providers.forEach { globalTraits.addAll(it.globalTraits()) }
     return globalTraits
   }
 
@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.api
+
+import com.squareup.kotlinpoet.ClassName
+import com.squareup.kotlinpoet.CodeBlock
+import com.squareup.kotlinpoet.FunSpec
+import com.squareup.kotlinpoet.TypeSpec
+
+/**
+ * An [AttrsTrait] for [KotlinTrait]s.
+ */
+interface KotlinAttrsTrait : AttrsTrait<TypeSpec.Builder, FunSpec.Builder, ClassName, CodeBlock> {
+  override fun attrsHook(type: TypeSpec.Builder, initMethod: FunSpec.Builder, rClass: ClassName, sourceType: String): CodeBlock?
+}
@@ -16,11 +16,9 @@
 
 package com.uber.artist.api
 
-import java.util.ServiceLoader
-
 class KotlinTraitService private constructor() : TraitService<KotlinTrait> {
 
-  private val serviceLoader = ServiceLoader.load(KotlinTrait::class.java)
+  private val traits = ArtistServiceRegistry.load(KotlinTrait::class.java)
 
   /**
    * Gets the [Trait] implementations loaded.
@@ -28,10 +26,7 @@ class KotlinTraitService private constructor() : TraitService<KotlinTrait> {
    * @return The located [Trait]s.
    */
   override fun get(): Set<KotlinTrait> {
-    val traits = LinkedHashSet<KotlinTrait>()
-    serviceLoader.iterator()
-        .forEach { traits.add(it) }
-    return traits
+    return LinkedHashSet(traits)
   }
 
   companion object {
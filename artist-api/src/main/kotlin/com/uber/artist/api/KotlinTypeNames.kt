@@ -28,10 +28,14 @@ class KotlinTypeNames {
       val AccessibilityNodeInfo: ClassName = ClassName("android.view.accessibility", "AccessibilityNodeInfo")
       val AttributeSet: ClassName = ClassName("android.util", "AttributeSet")
       val Canvas: ClassName = ClassName("android.graphics", "Canvas")
+      val Choreographer: ClassName = ClassName("android.view", "Choreographer")
+      val ChoreographerFrameCallback: ClassName = Choreographer.nestedClass("FrameCallback")
       val Context: ClassName = ClassName("android.content", "Context")
       val Drawable: ClassName = ClassName("android.graphics.drawable", "Drawable")
       val Gravity: ClassName = ClassName("android.view", "Gravity")
       val GravityCompat: ClassName = ClassName("androidx.core.view", "GravityCompat")
+      val LayoutInflaterFactory2: ClassName = ClassName("android.view", "LayoutInflater", "Factory2")
+      val Log: ClassName = ClassName("android.util", "Log")
       val MenuItem: ClassName = ClassName("android.view", "MenuItem")
       val Rect: ClassName = ClassName("android.graphics", "Rect")
       val TabLayout: ClassName = ClassName("com.google.android.material.tabs", "TabLayout")
@@ -16,11 +16,9 @@
 
 package com.uber.artist.api
 
-import java.util.ServiceLoader
-
 class KotlinViewStencilService private constructor() : ViewStencilService<KotlinViewStencil, KotlinTrait> {
 
-  private val serviceLoader = ServiceLoader.load(KotlinViewStencilProvider::class.java)
+  private val providers = ArtistServiceRegistry.load(KotlinViewStencilProvider::class.java)
 
   /**
    * Gets the [ViewStencil] implementations loaded.
@@ -29,8 +27,7 @@ class KotlinViewStencilService private constructor() : ViewStencilService<Kotlin
    */
   override fun getStencils(): Set<KotlinViewStencil> {
     val stencils = LinkedHashSet<KotlinViewStencil>()
-    serviceLoader.iterator()
-        .forEach { stencils.addAll(it.stencils()) }
+    providers.forEach { stencils.addAll(it.stencils()) }
     return stencils
   }
 
@@ -41,8 +38,7 @@ class KotlinViewStencilService private constructor() : ViewStencilService<Kotlin
    */
   override fun getGlobalTraits(): Set<Class<out KotlinTrait>> {
     val globalTraits = LinkedHashSet<Class<out KotlinTrait>>()
-    serviceLoader.iterator()
-        .forEach { globalTraits.addAll(it.globalTraits()) }
+    providers.forEach { globalTraits.addAll(it.globalTraits()) }
     return globalTraits
   }
 
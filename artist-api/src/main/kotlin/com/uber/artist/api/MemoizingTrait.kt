@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.api
+
+/**
+ * A [Trait] can implement [MemoizingTrait] to build members it generates identically for many views only once per
+ * generation, through the [TraitMemberCache] of that generation. The cache also keeps the state that traits share
+ * while generating a view.
+ *
+ * The generator calls [generateFor] instead of [Trait.generateFor] for such traits.
+ */
+interface MemoizingTrait<OutputType, FunType, ClassType> {
+
+  /**
+   * Generates this trait's code like [Trait.generateFor], getting the members it shares between views from
+   * [memberCache].
+   */
+  fun generateFor(
+      type: OutputType,
+      initMethod: FunType,
+      rClass: ClassType,
+      sourceType: String,
+      memberCache: TraitMemberCache)
+}
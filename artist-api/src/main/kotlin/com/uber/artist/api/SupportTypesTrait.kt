@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.api
+
+/**
+ * A [Trait] can implement [SupportTypesTrait] when the code it generates uses types that are generated as well, such
+ * as a small runtime shared by all views.
+ *
+ * Support types are generated once per generation run into the package of the views, so generated code can refer to
+ * them by their simple name. Types of the same name are only generated once, from the first trait that declares them.
+ */
+interface SupportTypesTrait<OutputType> {
+
+  /**
+   * The top-level types to generate for the views using this trait.
+   */
+  fun supportTypes(): List<OutputType>
+}
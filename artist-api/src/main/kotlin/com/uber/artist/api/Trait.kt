@@ -23,5 +23,14 @@ package com.uber.artist.api
  * [ViewStencil]’s code gen process that are called during each [ViewStencil]’s generation.
  */
 interface Trait<OutputType, FunType, ClassType> {
+
+  /**
+   * Generates this trait's code into the [ViewStencil]'s type and `init()` method.
+   *
+   * A single [Trait] instance is shared by every [ViewStencil] of a generation run. When generation runs with a
+   * parallelism above 1, this may be called concurrently for different stencils, each with its own `type` and
+   * `initMethod` builders. Implementations must therefore only touch the builders they are given and must not keep
+   * mutable state between calls.
+   */
   fun generateFor(type: OutputType, initMethod: FunType, rClass: ClassType, sourceType: String)
 }
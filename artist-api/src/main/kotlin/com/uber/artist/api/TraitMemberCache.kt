@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.api
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Memoizes members that a [Trait] generates identically for many stencils. JavaPoet and KotlinPoet specs are
+ * immutable, so a built method, function, field or property spec can be added to any number of types.
+ *
+ * The generator creates one cache per generation and passes it to every [MemoizingTrait], so members are never shared
+ * between generations that use another R package, other settings or another version of the trait, and concurrent
+ * generations don't affect each other. Within a generation, a key must cover everything the member depends on besides
+ * the trait itself. Members that don't depend on the stencil can use their name as key, while a member that differs
+ * for layouts can use e.g. `"onSizeChanged" to isLayout`.
+ *
+ * The cache also keeps the state several traits share while generating a view, see [getViewState].
+ */
+class TraitMemberCache {
+
+  private val members = ConcurrentHashMap<Pair<Class<*>, Any>, Any>()
+  private val viewStates = ConcurrentHashMap<ViewStateKey, Any>()
+
+  /**
+   * Gets the member [trait] generated for [key], building it with [factory] the first time it's requested.
+   */
+  fun <T : Any> get(trait: Trait<*, *, *>, key: Any, factory: () -> T): T {
+    @Suppress("UNCHECKED_CAST")
+    return members.getOrPut(trait.javaClass to key, factory) as T
+  }
+
+  /**
+   * Gets the state of the view built by [type] for [key], creating it with [factory] the first time it's requested for
+   * that view. Unlike members, the state belongs to a single view, so traits can use it to collect what they contribute
+   * to a shared member of the view, which a [FinishingTrait] then adds.
+   */
+  fun <T : Any> getViewState(type: Any, key: Any, factory: () -> T): T {
+    @Suppress("UNCHECKED_CAST")
+    return viewStates.getOrPut(ViewStateKey(type, key), factory) as T
+  }
+
+  /**
+   * Identifies a view by its type builder, which builders don't implement equality for.
+   */
+  private class ViewStateKey(private val type: Any, private val key: Any) {
+
+    override fun equals(other: Any?) = other is ViewStateKey && other.type === type && other.key == key
+
+    override fun hashCode() = 31 * System.identityHashCode(type) + key.hashCode()
+  }
+}
@@ -27,10 +27,14 @@ class TypeNames {
       val AccessibilityNodeInfo: ClassName = ClassName.get("android.view.accessibility", "AccessibilityNodeInfo")
       val AttributeSet: ClassName = ClassName.get("android.util", "AttributeSet")
       val Canvas: ClassName = ClassName.get("android.graphics", "Canvas")
+      val Choreographer: ClassName = ClassName.get("android.view", "Choreographer")
+      val ChoreographerFrameCallback: ClassName = Choreographer.nestedClass("FrameCallback")
       val Context: ClassName = ClassName.get("android.content", "Context")
       val Drawable: ClassName = ClassName.get("android.graphics.drawable", "Drawable")
       val Gravity: ClassName = ClassName.get("android.view", "Gravity")
       val GravityCompat: ClassName = ClassName.get("androidx.core.view", "GravityCompat")
+      val LayoutInflaterFactory2: ClassName = ClassName.get("android.view", "LayoutInflater", "Factory2")
+      val Log: ClassName = ClassName.get("android.util", "Log")
       val MenuItem: ClassName = ClassName.get("android.view", "MenuItem")
       val Rect: ClassName = ClassName.get("android.graphics", "Rect")
       val TabLayout: ClassName = ClassName.get("com.google.android.material.tabs", "TabLayout")
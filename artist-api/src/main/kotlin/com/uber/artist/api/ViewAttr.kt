@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.api
+
+import java.util.Locale
+
+/**
+ * An attribute read from the `TypedArray` that a generated view obtains once in `init()` for its stencil and all of its
+ * [AttrsTrait]s. Its index in that `TypedArray` is available as a constant named [indexName].
+ *
+ * @param name The name of the attribute, e.g. `foregroundInsidePadding`.
+ * @param android Whether this is a framework attribute from `android.R.attr` rather than one from the app's `R.attr`.
+ */
+data class ViewAttr(val name: String, val android: Boolean = false) {
+
+  /**
+   * The name of the generated constant holding the index of this attribute, e.g. `ATTR_ANDROID_FOREGROUND_GRAVITY`.
+   */
+  val indexName: String
+    get() {
+      val constantName = name.replace(Regex("([a-z0-9])([A-Z])"), "$1_$2").toUpperCase(Locale.US)
+      return if (android) "ATTR_ANDROID_$constantName" else "ATTR_$constantName"
+    }
+}
@@ -16,6 +16,14 @@
 
 package com.uber.artist.api
 
+/**
+ * A [ViewStencil] defines a view class to be generated.
+ *
+ * Stencils are prepared (global traits and name prefix) on the calling thread before any code is generated. When
+ * generation runs with a parallelism above 1, the hooks of different stencils may then run concurrently, while the
+ * hooks of any single stencil are always called from one thread, in order. Hooks should only touch the builders they
+ * are given and must not share mutable state with other stencils.
+ */
 abstract class ViewStencil<OutputType, FunType, ClassName, CodeBlock>(
     val extendedType: String,
     val constructorCount: Int = 4,
@@ -36,13 +44,19 @@ abstract class ViewStencil<OutputType, FunType, ClassName, CodeBlock>(
     return "$namePrefix${sourceName.removePrefix("AppCompat")}"
   }
 
+  /**
+   * The attributes this stencil reads in [attrsHook]. They are obtained in the same `TypedArray` as the attributes of
+   * the stencil's [AttrsTrait]s.
+   */
+  open fun attrs(): Set<ViewAttr> = emptySet()
+
   /**
    * Hook for when attributes are being pulled out of the attribute set.
    * Can safely assume the following values exist:
    *   - context: Context
    *   - attrs: AttributeSet
    *   - defStyleAttr: int
-   *   - a: TypedArray
+   *   - a: TypedArray, holding the attributes of [attrs] at the indices named by [ViewAttr.indexName]
    *
    * Should *not* recycle `a`. Safe to assume `a` is null-checked before code would execute.
    */
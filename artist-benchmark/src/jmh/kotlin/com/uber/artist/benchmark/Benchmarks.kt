@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.benchmark
+
+import com.uber.artist.GenerationResult
+import com.uber.artist.JavaArtistCodeGenerator
+import com.uber.artist.KotlinArtistCodeGenerator
+import com.uber.artist.api.JavaTrait
+import com.uber.artist.api.JavaViewStencil
+import com.uber.artist.api.KotlinTrait
+import com.uber.artist.api.KotlinViewStencil
+import com.uber.artist.traits.JavaForegroundTrait
+import com.uber.artist.traits.JavaSuppressNullabilityInitializerTrait
+import com.uber.artist.traits.JavaVisibilityTrait
+import com.uber.artist.traits.KotlinForegroundTrait
+import com.uber.artist.traits.KotlinSuppressNullabilityInitializerTrait
+import com.uber.artist.traits.KotlinVisibilityTrait
+import com.uber.artist.traits.rx.JavaCheckableTrait
+import com.uber.artist.traits.rx.JavaScrollableTrait
+import com.uber.artist.traits.rx.JavaTextInputTrait
+import com.uber.artist.traits.rx.JavaViewTrait
+import com.uber.artist.traits.rx.KotlinCheckableTrait
+import com.uber.artist.traits.rx.KotlinScrollableTrait
+import com.uber.artist.traits.rx.KotlinTextInputTrait
+import com.uber.artist.traits.rx.KotlinViewTrait
+import java.io.File
+
+internal const val BENCHMARK_PACKAGE_NAME = "com.uber.artist.benchmark.views"
+
+/**
+ * The traits bundled with Artist, keyed by their simple class name.
+ */
+internal val JAVA_TRAITS: Map<String, JavaTrait> = listOf(
+    JavaForegroundTrait(),
+    JavaSuppressNullabilityInitializerTrait(),
+    JavaVisibilityTrait(),
+    JavaCheckableTrait(),
+    JavaScrollableTrait(),
+    JavaTextInputTrait(),
+    JavaViewTrait()
+).associateBy { it.javaClass.simpleName }
+
+internal val KOTLIN_TRAITS: Map<String, KotlinTrait> = listOf(
+    KotlinForegroundTrait(),
+    KotlinSuppressNullabilityInitializerTrait(),
+    KotlinVisibilityTrait(),
+    KotlinCheckableTrait(),
+    KotlinScrollableTrait(),
+    KotlinTextInputTrait(),
+    KotlinViewTrait()
+).associateBy { it.javaClass.simpleName }
+
+/**
+ * Generates Java views for [stencilCount] synthetic stencils, applying every trait in [traits] to all of them.
+ */
+internal fun generateJavaViews(
+    stencilCount: Int,
+    traits: Collection<JavaTrait>,
+    outputDir: File,
+    formatSource: Boolean): GenerationResult {
+  // Stencils are mutated during generation, so every run gets new ones.
+  val stencils = (0 until stencilCount)
+      .map { JavaViewStencil(syntheticViewType(it), constructorCount(it)) }
+      .toSet()
+  return JavaArtistCodeGenerator().generateViewsForStencils(stencils, traits.toSet(),
+      traits.map { it.javaClass }.toSet(), outputDir, BENCHMARK_PACKAGE_NAME, BENCHMARK_PACKAGE_NAME, null, "Benchmark",
+      formatSource)
+}
+
+/**
+ * Generates Kotlin views for [stencilCount] synthetic stencils, applying every trait in [traits] to all of them.
+ */
+internal fun generateKotlinViews(
+    stencilCount: Int,
+    traits: Collection<KotlinTrait>,
+    outputDir: File,
+    formatSource: Boolean): GenerationResult {
+  val stencils = (0 until stencilCount)
+      .map { KotlinViewStencil(syntheticViewType(it), constructorCount(it)) }
+      .toSet()
+  return KotlinArtistCodeGenerator().generateViewsForStencils(stencils, traits.toSet(),
+      traits.map { it.javaClass }.toSet(), outputDir, BENCHMARK_PACKAGE_NAME, BENCHMARK_PACKAGE_NAME, null, "Benchmark",
+      formatSource)
+}
+
+private fun syntheticViewType(index: Int) = "com.uber.artist.benchmark.widget.SyntheticView$index"
+
+/**
+ * Spreads the stencils over all supported constructor counts, so each constructor chain is exercised.
+ */
+private fun constructorCount(index: Int) = index % 4 + 1
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.benchmark
+
+import com.uber.artist.GenerationResult
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import java.io.File
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures a full generation run for a growing number of stencils, with the non-rx bundled traits applied to every
+ * stencil. The output directory is kept between invocations, so after the first invocation this measures the steady
+ * state in which unchanged files are compared rather than rewritten.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+open class GenerationBenchmark {
+
+  @Param("10", "100", "500")
+  @JvmField
+  var stencilCount: Int = 0
+
+  @Param("true", "false")
+  @JvmField
+  var formatSource: Boolean = false
+
+  @Param("java", "kotlin")
+  @JvmField
+  var language: String = ""
+
+  private lateinit var outputDir: File
+
+  @Setup
+  fun setUp() {
+    outputDir = createTempDir("artist-benchmark")
+  }
+
+  @TearDown
+  fun tearDown() {
+    outputDir.deleteRecursively()
+  }
+
+  @Benchmark
+  fun generateViews(): GenerationResult {
+    return when (language) {
+      "java" -> generateJavaViews(stencilCount, listOf("JavaForegroundTrait", "JavaSuppressNullabilityInitializerTrait",
+          "JavaVisibilityTrait").map { JAVA_TRAITS.getValue(it) }, outputDir, formatSource)
+      "kotlin" -> generateKotlinViews(stencilCount, listOf("KotlinForegroundTrait",
+          "KotlinSuppressNullabilityInitializerTrait", "KotlinVisibilityTrait").map { KOTLIN_TRAITS.getValue(it) },
+          outputDir, formatSource)
+      else -> throw IllegalArgumentException("Unknown language: $language")
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.benchmark
+
+import com.uber.artist.GenerationResult
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import java.io.File
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures the cost of each bundled trait in isolation, by generating unformatted views that only have that trait.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+open class TraitBenchmark {
+
+  @Param(
+      "JavaForegroundTrait",
+      "JavaSuppressNullabilityInitializerTrait",
+      "JavaVisibilityTrait",
+      "JavaCheckableTrait",
+      "JavaScrollableTrait",
+      "JavaTextInputTrait",
+      "JavaViewTrait",
+      "KotlinForegroundTrait",
+      "KotlinSuppressNullabilityInitializerTrait",
+      "KotlinVisibilityTrait",
+      "KotlinCheckableTrait",
+      "KotlinScrollableTrait",
+      "KotlinTextInputTrait",
+      "KotlinViewTrait")
+  @JvmField
+  var trait: String = ""
+
+  @Param("100")
+  @JvmField
+  var stencilCount: Int = 0
+
+  private lateinit var outputDir: File
+
+  @Setup
+  fun setUp() {
+    outputDir = createTempDir("artist-benchmark")
+  }
+
+  @TearDown
+  fun tearDown() {
+    outputDir.deleteRecursively()
+  }
+
+  @Benchmark
+  fun generateViews(): GenerationResult {
+    val javaTrait = JAVA_TRAITS[trait]
+    if (javaTrait != null) {
+      return generateJavaViews(stencilCount, listOf(javaTrait), outputDir, false)
+    }
+    return generateKotlinViews(stencilCount, listOf(KOTLIN_TRAITS.getValue(trait)), outputDir, false)
+  }
+}
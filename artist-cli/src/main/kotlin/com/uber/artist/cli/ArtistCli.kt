@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+@file:JvmName("ArtistCli")
+
+package com.uber.artist.cli
+
+import com.uber.artist.generateViewsFor
+import java.io.BufferedReader
+import java.io.File
+import java.io.InputStreamReader
+import java.io.PrintStream
+import java.net.URLClassLoader
+import java.util.concurrent.TimeUnit
+
+private const val USAGE = """Usage: artist-cli [--batch] [options]
+
+Generates views from the stencils and traits found on --providers, without Gradle.
+
+Options:
+  --providers <classpath>        Jars and directories to load stencil providers and traits from.
+  --output <dir>                 Directory to generate the views into.
+  --package <name>               Package of the generated views.
+  --r-package <name>             Package of the R class. Defaults to --package.
+  --prefix <prefix>              Prefix of the generated view names. Defaults to none.
+  --superinterface <class>       Interface every generated view implements.
+  --stencil-manifest <file>      JSON manifest declaring additional stencils and global traits.
+  --allocation-lint <mode>       Check frame-critical methods for allocations: OFF (default), WARN or FAIL.
+  --kotlin                       Generate Kotlin instead of Java.
+  --no-format                    Don't format the generated Java sources.
+  --inflater-factory             Also generate a LayoutInflater.Factory2 creating the generated views.
+  --baseline-profile <file>      File to write ART baseline profile rules for the generated views to.
+  --parallelism <n>              Number of views to generate concurrently. Defaults to 1.
+  --state-file <file>            File keeping stencil fingerprints, to only regenerate views that changed. Views
+                                 of removed stencils are only deleted if they are recorded in it.
+  --batch                        Read one set of options per line from stdin and generate each of them in this
+                                 process. Prints "OK <written> <unchanged> <ms>" or "ERROR <message>" per line."""
+
+/**
+ * Generates views outside of Gradle, e.g. when iterating on traits or from build systems that don't use Gradle.
+ *
+ * In batch mode the process stays alive and generates one configuration per line read from stdin, which avoids paying
+ * for JVM startup and lets configurations sharing a provider classpath reuse its class loader and loaded services.
+ */
+fun main(args: Array<String>) {
+  if (args.isEmpty() || "--help" in args) {
+    println(USAGE)
+    return
+  }
+
+  val generator = CliGenerator()
+  if (args.contains("--batch")) {
+    generator.runBatch(args.filter { it != "--batch" }, BufferedReader(InputStreamReader(System.`in`)), System.out)
+    return
+  }
+
+  try {
+    val result = generator.generate(CliOptions.parse(args.asList()))
+    result.allocationFindings.forEach { System.err.println("Allocation in frame-critical method $it") }
+    println("Wrote ${result.writtenFiles} generated files, ${result.skippedFiles} were unchanged")
+  } catch (e: IllegalArgumentException) {
+    System.err.println(e.message)
+    System.err.println(USAGE)
+    System.exit(1)
+  }
+}
+
+internal class CliGenerator {
+
+  private val classLoaders = HashMap<List<File>, ProviderClassLoader>()
+
+  /**
+   * Generates the configuration on every line of [input], on top of [defaultArgs], until the input is exhausted.
+   */
+  fun runBatch(defaultArgs: List<String>, input: BufferedReader, output: PrintStream) {
+    input.lineSequence()
+        .map { it.trim() }
+        .filter { it.isNotEmpty() && !it.startsWith("#") }
+        .forEach { line ->
+          val startTime = System.nanoTime()
+          val response = try {
+            val result = generate(CliOptions.parse(defaultArgs + line.split(Regex("\\s+"))))
+            val millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)
+            "OK ${result.writtenFiles} ${result.skippedFiles} $millis"
+          } catch (e: Exception) {
+            "ERROR ${e.message ?: e.javaClass.name}".replace('\n', ' ')
+          }
+          output.println(response)
+          output.flush()
+        }
+  }
+
+  fun generate(options: CliOptions) = withProviders(options.providers) {
+    generateViewsFor(
+        options.outputDir,
+        options.viewPackageName,
+        options.rPackageName,
+        options.superinterfaceClassName,
+        options.viewNamePrefix,
+        options.formatSource,
+        options.generateKotlin,
+        options.parallelism,
+        options.stateFile,
+        stencilManifest = options.stencilManifest,
+        allocationLint = options.allocationLint,
+        generateInflaterFactory = options.generateInflaterFactory,
+        baselineProfile = options.baselineProfile
+    )
+  }
+
+  /**
+   * Runs [block] with a class loader for [providers] as context class loader, where Artist looks up stencils and
+   * traits. The class loader is reused until one of the provider jars or directories changes.
+   */
+  private fun <T> withProviders(providers: List<File>, block: () -> T): T {
+    val signature = providers.map { it.lastModifiedRecursively() }
+    val providerClassLoader = classLoaders[providers]?.takeIf { it.signature == signature }
+        ?: ProviderClassLoader(providers, signature).also { classLoaders.put(providers, it)?.classLoader?.close() }
+
+    val thread = Thread.currentThread()
+    val contextClassLoader = thread.contextClassLoader
+    thread.contextClassLoader = providerClassLoader.classLoader
+    try {
+      return block()
+    } finally {
+      thread.contextClassLoader = contextClassLoader
+    }
+  }
+
+  private fun File.lastModifiedRecursively(): Long {
+    return if (isDirectory) walkTopDown().map { it.lastModified() }.max() ?: 0 else lastModified()
+  }
+
+  private class ProviderClassLoader(providers: List<File>, val signature: List<Long>) {
+    val classLoader = URLClassLoader(providers.map { it.toURI().toURL() }.toTypedArray(),
+        CliGenerator::class.java.classLoader)
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.cli
+
+import com.uber.artist.AllocationLint
+import java.io.File
+
+/**
+ * The options of a single generation, as passed on the command line.
+ */
+internal class CliOptions(
+    val providers: List<File>,
+    val outputDir: File,
+    val viewPackageName: String,
+    val rPackageName: String,
+    val superinterfaceClassName: String?,
+    val viewNamePrefix: String,
+    val formatSource: Boolean,
+    val generateKotlin: Boolean,
+    val parallelism: Int,
+    val stateFile: File?,
+    val stencilManifest: File?,
+    val allocationLint: AllocationLint.Mode,
+    val generateInflaterFactory: Boolean,
+    val baselineProfile: File?) {
+
+  companion object {
+
+    /**
+     * Parses [args]. Options that are repeated take the last value, so batch lines can override default options.
+     *
+     * @throws IllegalArgumentException If an option is unknown or a required option is missing.
+     */
+    fun parse(args: List<String>): CliOptions {
+      val values = HashMap<String, String>()
+      val flags = HashSet<String>()
+      val iterator = args.iterator()
+      while (iterator.hasNext()) {
+        val arg = iterator.next()
+        when (arg) {
+          "--kotlin", "--no-format", "--inflater-factory" -> flags.add(arg)
+          "--providers", "--output", "--package", "--r-package", "--prefix", "--superinterface", "--parallelism",
+          "--state-file", "--stencil-manifest", "--allocation-lint", "--baseline-profile" -> {
+            require(iterator.hasNext()) { "Missing value for $arg" }
+            values[arg] = iterator.next()
+          }
+          else -> throw IllegalArgumentException("Unknown option $arg")
+        }
+      }
+
+      fun required(name: String) = requireNotNull(values[name]) { "Missing required option $name" }
+
+      val viewPackageName = required("--package")
+      val parallelism = values["--parallelism"]?.let {
+        requireNotNull(it.toIntOrNull()) { "--parallelism must be a number, but was $it" }
+      } ?: 1
+      val allocationLint = values["--allocation-lint"]?.let { mode ->
+        requireNotNull(AllocationLint.Mode.values().firstOrNull { it.name.equals(mode, ignoreCase = true) }) {
+          "--allocation-lint must be one of ${AllocationLint.Mode.values().joinToString()}, but was $mode"
+        }
+      } ?: AllocationLint.Mode.OFF
+      return CliOptions(
+          providers = required("--providers").split(File.pathSeparatorChar).filter { it.isNotEmpty() }.map(::File),
+          outputDir = File(required("--output")),
+          viewPackageName = viewPackageName,
+          rPackageName = values["--r-package"] ?: viewPackageName,
+          superinterfaceClassName = values["--superinterface"],
+          viewNamePrefix = values["--prefix"] ?: "",
+          formatSource = "--no-format" !in flags,
+          generateKotlin = "--kotlin" in flags,
+          parallelism = parallelism,
+          stateFile = values["--state-file"]?.let(::File),
+          stencilManifest = values["--stencil-manifest"]?.let(::File),
+          allocationLint = allocationLint,
+          generateInflaterFactory = "--inflater-factory" in flags,
+          baselineProfile = values["--baseline-profile"]?.let(::File))
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.cli
+
+import com.google.common.io.Files
+import com.google.common.truth.Truth.assertThat
+import com.uber.artist.AllocationLint
+import com.uber.artist.api.JavaTrait
+import com.uber.artist.api.JavaViewStencil
+import com.uber.artist.api.JavaViewStencilProvider
+import org.junit.Assert.fail
+import org.junit.Test
+import java.io.BufferedReader
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.io.PrintStream
+import java.io.StringReader
+
+class ArtistCliTest {
+
+    @Test
+    fun testCliOptions_withRequiredOptions_shouldUseDefaults() {
+        val options = CliOptions.parse(listOf("--providers", "providers.jar", "--output", "out", "--package", "com.example"))
+
+        assertThat(options.providers).containsExactly(File("providers.jar"))
+        assertThat(options.outputDir).isEqualTo(File("out"))
+        assertThat(options.rPackageName).isEqualTo("com.example")
+        assertThat(options.viewNamePrefix).isEmpty()
+        assertThat(options.formatSource).isTrue()
+        assertThat(options.parallelism).isEqualTo(1)
+        assertThat(options.allocationLint).isEqualTo(AllocationLint.Mode.OFF)
+    }
+
+    @Test
+    fun testCliOptions_withRepeatedOptions_shouldUseLastValue() {
+        // Batch lines are appended to the default options, so they override them.
+        val options = CliOptions.parse(listOf("--providers", "providers.jar", "--output", "out", "--package", "com.example",
+                "--prefix", "My", "--allocation-lint", "warn") + listOf("--prefix", "Other", "--package", "com.other"))
+
+        assertThat(options.viewNamePrefix).isEqualTo("Other")
+        assertThat(options.viewPackageName).isEqualTo("com.other")
+        assertThat(options.rPackageName).isEqualTo("com.other")
+        assertThat(options.allocationLint).isEqualTo(AllocationLint.Mode.WARN)
+    }
+
+    @Test
+    fun testCliOptions_withUnknownOption_shouldFail() {
+        assertParseFails(listOf("--providers", "providers.jar", "--unknown"), "Unknown option --unknown")
+    }
+
+    @Test
+    fun testCliOptions_withMissingValue_shouldFail() {
+        assertParseFails(listOf("--output", "out", "--package"), "Missing value for --package")
+    }
+
+    @Test
+    fun testCliOptions_withMissingRequiredOption_shouldFail() {
+        assertParseFails(listOf("--providers", "providers.jar", "--package", "com.example"),
+                "Missing required option --output")
+    }
+
+    @Test
+    fun testCliGenerator_withBatchInput_shouldPrintResultPerLine() {
+        val providersDir = Files.createTempDir()
+        providersDir.resolve("META-INF/services").apply { mkdirs() }
+                .resolve(JavaViewStencilProvider::class.java.name)
+                .writeText(TestViewStencilProvider::class.java.name)
+        val outputDir = Files.createTempDir()
+        val input = """
+# Comments and blank lines are skipped
+
+--output ${outputDir.path}
+--output ${outputDir.path} --parallelism many
+"""
+        val output = ByteArrayOutputStream()
+
+        CliGenerator().runBatch(listOf("--providers", providersDir.path, "--package", "com.example", "--prefix", "My"),
+                BufferedReader(StringReader(input)), PrintStream(output))
+
+        val lines = output.toString().lines().filter { it.isNotEmpty() }
+        assertThat(lines).hasSize(2)
+        assertThat(lines[0]).matches("OK 1 0 \\d+")
+        assertThat(lines[1]).isEqualTo("ERROR --parallelism must be a number, but was many")
+        assertThat(outputDir.resolve("com/example/MyImageView.java").exists()).isTrue()
+    }
+
+    private fun assertParseFails(args: List<String>, message: String) {
+        try {
+            CliOptions.parse(args)
+            fail("Expected parsing $args to fail")
+        } catch (e: IllegalArgumentException) {
+            assertThat(e).hasMessageThat().isEqualTo(message)
+        }
+    }
+
+    class TestViewStencilProvider : JavaViewStencilProvider {
+
+        override fun stencils() = setOf(JavaViewStencil("android.widget.ImageView", 3))
+
+        override fun globalTraits() = emptySet<Class<out JavaTrait>>()
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist
+
+import java.util.concurrent.ConcurrentLinkedQueue
+
+/**
+ * Looks for object allocations in the frame-critical methods of generated views, such as `draw` or `onTouchEvent`,
+ * which run for every frame or touch event and shouldn't cause garbage collections.
+ *
+ * The generated source is checked line by line for code that is known to allocate: `new`, boxing, lambdas, method
+ * references and anonymous classes, common varargs calls and string concatenation. It is a heuristic and doesn't
+ * resolve types, so it can't see allocations hidden in called methods.
+ *
+ * Safe to use from multiple threads.
+ */
+class AllocationLint(val mode: Mode) {
+
+  enum class Mode {
+    /** Don't check generated views. */
+    OFF,
+    /** Report allocations as [findings]. */
+    WARN,
+    /** Report allocations as [findings] and fail generation in [verify]. */
+    FAIL
+  }
+
+  companion object {
+    /**
+     * The overrides that run on every frame or touch event.
+     */
+    val HOT_METHODS = setOf("draw", "onDraw", "onMeasure", "onLayout", "onSizeChanged", "dispatchTouchEvent",
+        "onTouchEvent", "drawableStateChanged")
+
+    private val STRING_LITERAL = Regex("\"(\\\\.|[^\"\\\\])*\"")
+    private val STRING_CONCATENATION = Rule("concatenates strings", Regex("\"\"\\s*\\+|\\+\\s*\"\""))
+
+    private val JAVA_RULES = listOf(
+        Rule("allocates an object", Regex("\\bnew\\s+[\\w.]")),
+        Rule("allocates a lambda", Regex("->")),
+        Rule("allocates a method reference", Regex("::")),
+        Rule("boxes a primitive", Regex("\\b(Integer|Long|Short|Byte|Character|Float|Double|Boolean)\\.valueOf\\(")),
+        Rule("calls a varargs method", Regex("\\b(String\\.format|Arrays\\.asList|Collections\\.addAll|Objects\\.hash)\\(")),
+        STRING_CONCATENATION)
+
+    private val KOTLIN_RULES = listOf(
+        Rule("allocates an object", Regex("(^|[^.\\w])[A-Z]\\w*(<[^>]*>)?\\(")),
+        Rule("allocates an anonymous object", Regex("\\bobject\\s*:")),
+        Rule("allocates a function reference", Regex("::")),
+        Rule("boxes a primitive", Regex(":\\s*(Int|Long|Short|Byte|Char|Float|Double|Boolean)\\?")),
+        Rule("calls a varargs function", Regex("\\b(\\w*ArrayOf|listOf|mutableListOf|setOf|mutableSetOf|mapOf|mutableMapOf|String\\.format)\\(")),
+        Rule("builds a string template", Regex("\"[^\"]*\\$[{\\w]"), matchesLiterals = true),
+        STRING_CONCATENATION)
+  }
+
+  private val allFindings = ConcurrentLinkedQueue<String>()
+
+  /**
+   * The allocations found so far, as `<view>.<method>: <reason>: <line>`.
+   */
+  val findings: List<String>
+    get() = allFindings.sorted()
+
+  /**
+   * Checks the [methods] of the generated view named [viewName], given as pairs of method name and source.
+   */
+  fun check(viewName: String, methods: List<Pair<String, String>>, kotlin: Boolean) {
+    if (mode == Mode.OFF) {
+      return
+    }
+    val rules = if (kotlin) KOTLIN_RULES else JAVA_RULES
+    methods.filter { (name, _) -> name in HOT_METHODS }
+        .forEach { (name, code) ->
+          code.lineSequence()
+              .map { it.trim() }
+              .filter { it.isNotEmpty() && !it.startsWith("//") }
+              .forEach { line ->
+                // Literals can contain anything, only concatenating and templating them matters.
+                val withoutLiterals = line.replace(STRING_LITERAL, "\"\"")
+                rules.filter { rule -> rule.pattern.containsMatchIn(if (rule.matchesLiterals) line else withoutLiterals) }
+                    .forEach { rule -> allFindings.add("$viewName.$name: ${rule.description}: $line") }
+              }
+        }
+  }
+
+  /**
+   * @throws IllegalStateException If allocations were found and the [mode] is [Mode.FAIL].
+   */
+  fun verify() {
+    val findings = findings
+    check(mode != Mode.FAIL || findings.isEmpty()) {
+      "Generated views allocate in frame-critical methods:\n" + findings.joinToString("\n") { "  $it" }
+    }
+  }
+
+  /**
+   * @param matchesLiterals Whether [pattern] is matched against the line as is, rather than with its string literals
+   * emptied.
+   */
+  private class Rule(val description: String, val pattern: Regex, val matchesLiterals: Boolean = false)
+}
@@ -25,7 +25,16 @@ fun generateViewsFor(
     superinterfaceClassName: String?,
     viewNamePrefix: String,
     formatSource: Boolean,
-    generateKotlin: Boolean = false) {
+    generateKotlin: Boolean = false,
+    parallelism: Int = 1,
+    stateFile: File? = null,
+    profile: Boolean = false,
+    stencilManifest: File? = null,
+    allocationLint: AllocationLint.Mode = AllocationLint.Mode.OFF,
+    generateInflaterFactory: Boolean = false,
+    baselineProfile: File? = null,
+    fileWriter: GeneratedFileWriter = GeneratedFileWriter(),
+    ownsOutputDir: Boolean = false): GenerationResult {
   val artistCodeGenerator = if (generateKotlin) KotlinArtistCodeGenerator() else JavaArtistCodeGenerator()
-  artistCodeGenerator.generateViews(outputDir, viewPackageName, rPackageName, superinterfaceClassName, viewNamePrefix, formatSource)
+  return artistCodeGenerator.generateViews(outputDir, viewPackageName, rPackageName, superinterfaceClassName, viewNamePrefix, formatSource, parallelism, stateFile, profile, stencilManifest, allocationLint, generateInflaterFactory, baselineProfile, fileWriter, ownsOutputDir)
 }
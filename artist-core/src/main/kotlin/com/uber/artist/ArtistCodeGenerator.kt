@@ -17,10 +17,24 @@
 package com.uber.artist
 
 import com.google.common.annotations.VisibleForTesting
+import com.uber.artist.api.ArtistServiceRegistry
+import com.uber.artist.api.AttrsTrait
+import com.uber.artist.api.FinishingTrait
+import com.uber.artist.api.HotMethodsTrait
 import com.uber.artist.api.KotlinViewStencil
+import com.uber.artist.api.MemoizingTrait
+import com.uber.artist.api.SupportTypesTrait
 import com.uber.artist.api.Trait
+import com.uber.artist.api.TraitMemberCache
+import com.uber.artist.api.ViewAttr
 import com.uber.artist.api.ViewStencil
 import java.io.File
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.atomic.AtomicInteger
 
 abstract class ArtistCodeGenerator<
     OutputFileType,
@@ -35,17 +49,93 @@ abstract class ArtistCodeGenerator<
   abstract val traits: Set<TraitType>
   abstract val globalTraits: Set<Class<out TraitType>>
 
+  /**
+   * The extension of the source files this generator writes.
+   */
+  protected abstract val sourceFileExtension: String
+
+  /**
+   * The trait interface of this generator, which the traits named in a [StencilManifest] must implement.
+   */
+  protected abstract val traitType: Class<TraitType>
+
+  /**
+   * Generates the views of the provided stencils and, if a [stencilManifest] is given, the stencils declared in it.
+   */
   fun generateViews(
       outputDir: File,
       viewPackageName: String,
       rPackageName: String,
       superinterfaceClassName: String?,
       viewNamePrefix: String,
-      formatSource: Boolean
-  ) {
-    generateViewsForStencils(viewStencils, traits, globalTraits, outputDir, viewPackageName, rPackageName, superinterfaceClassName, viewNamePrefix, formatSource)
+      formatSource: Boolean,
+      parallelism: Int = 1,
+      stateFile: File? = null,
+      profile: Boolean = false,
+      stencilManifest: File? = null,
+      allocationLint: AllocationLint.Mode = AllocationLint.Mode.OFF,
+      generateInflaterFactory: Boolean = false,
+      baselineProfile: File? = null,
+      fileWriter: GeneratedFileWriter = GeneratedFileWriter(),
+      ownsOutputDir: Boolean = false
+  ): GenerationResult {
+    ArtistServiceRegistry.refresh()
+    var stencils = viewStencils
+    var stencilGlobalTraits = globalTraits
+    if (stencilManifest != null) {
+      val manifest = StencilManifest.read(stencilManifest)
+      stencils += manifest.stencils.map { createStencil(it, loadTraits(it.addedTraits, stencilManifest)) }
+      stencilGlobalTraits += loadTraits(manifest.globalTraits, stencilManifest)
+    }
+    return generateViewsForStencils(stencils, traits, stencilGlobalTraits, outputDir, viewPackageName, rPackageName, superinterfaceClassName, viewNamePrefix, formatSource, parallelism, stateFile, profile, allocationLint, generateInflaterFactory, baselineProfile, fileWriter, ownsOutputDir)
   }
 
+  private fun loadTraits(classNames: List<String>, stencilManifest: File): List<Class<out TraitType>> {
+    val classLoader = Thread.currentThread().contextClassLoader ?: javaClass.classLoader
+    return classNames.map { className ->
+      val traitClass = try {
+        Class.forName(className, false, classLoader)
+      } catch (e: ClassNotFoundException) {
+        throw IllegalArgumentException("Trait $className of stencil manifest $stencilManifest was not found", e)
+      }
+      require(traitType.isAssignableFrom(traitClass)) {
+        "$className of stencil manifest $stencilManifest is not a ${traitType.simpleName}"
+      }
+      traitClass.asSubclass(traitType)
+    }
+  }
+
+  /**
+   * Generates a view for each of the given stencils.
+   *
+   * When a [stateFile] is given, generation is incremental: a fingerprint of every stencil is kept in that file and
+   * only views whose fingerprint changed (or whose file is missing) are regenerated, while the files recorded in the
+   * previous state whose stencils no longer exist are deleted. Without a usable state file all views are generated and
+   * no file is deleted, unless [ownsOutputDir] declares that [outputDir] only ever holds the files of this generation:
+   * then any other file in it is deleted, which drops the views of stencils removed while the state was missing.
+   *
+   * All files of a run share one [FormatterPool], so formatters are reused across files and the files are formatted
+   * concurrently when [parallelism] allows it. Files whose content did not change are not rewritten.
+   *
+   * With [profile] enabled, the time spent on each phase of generating each view is recorded in the result's
+   * [GenerationResult.profile].
+   *
+   * Unless [allocationLint] is off, the frame-critical methods of every generated view are checked for allocations
+   * before the view is written, see [AllocationLint]. Views that are up to date aren't generated and thus not checked.
+   *
+   * With [generateInflaterFactory] enabled, a `LayoutInflater.Factory2` named `<viewNamePrefix>LayoutInflaterFactory`
+   * is generated as well. It creates the generated views from layouts without `LayoutInflater`'s reflection. Layouts
+   * can refer to them by their fully qualified name or, with a [viewNamePrefix], by their simple name.
+   *
+   * Types that the traits of the views need, see [SupportTypesTrait], are generated into the same package as the views.
+   *
+   * When a [baselineProfile] file is given, ART baseline profile rules for the generated classes are written to it,
+   * see [BaselineProfile]. They cover constructors, `init()`, the frame-critical methods and the methods named by the
+   * [HotMethodsTrait]s of each view.
+   *
+   * Files are written through [fileWriter], which callers can replace to write the generated views somewhere other
+   * than [outputDir].
+   */
   @VisibleForTesting
   fun generateViewsForStencils(
       viewStencils: Set<ViewStencilType>,
@@ -56,30 +146,321 @@ abstract class ArtistCodeGenerator<
       rPackageName: String,
       superinterfaceClassName: String?,
       viewNamePrefix: String,
-      formatSource: Boolean) {
+      formatSource: Boolean,
+      parallelism: Int = 1,
+      stateFile: File? = null,
+      profile: Boolean = false,
+      allocationLint: AllocationLint.Mode = AllocationLint.Mode.OFF,
+      generateInflaterFactory: Boolean = false,
+      baselineProfile: File? = null,
+      fileWriter: GeneratedFileWriter = GeneratedFileWriter(),
+      ownsOutputDir: Boolean = false): GenerationResult {
     val traitMap: Map<Class<out TraitType>, TraitType> = traits.associateBy { it.javaClass }
+    val memberCache = TraitMemberCache()
 
+    // Stencils are mutable, so they are always prepared on the calling thread.
     viewStencils.forEach {
       it.setGlobalTraits(globalTraits)
       it.setPrefix(viewNamePrefix)
+    }
 
-      val typeSpecBuilder = generateTypeSpecFor(it, rPackageName, traitMap, superinterfaceClassName)
-      val fileSpec = generateFileSpecFor(it, viewPackageName, typeSpecBuilder)
+    // Stencils generating the same view would write the same file and share a fingerprint.
+    val duplicates = viewStencils.groupBy { it.name() }.filterValues { it.size > 1 }
+    require(duplicates.isEmpty()) {
+      "Several stencils generate the same view: " + duplicates.entries.joinToString { (name, stencils) ->
+        "$name (${stencils.joinToString { it.extendedType }})"
+      }
+    }
+
+    val formatterPool = FormatterPool()
+    val profiler = GenerationProfiler(profile)
+    val lint = AllocationLint(allocationLint)
+    val baselineRules = BaselineProfile()
+    val generateView: (ViewStencilType) -> Unit = { stencil ->
+      val name = stencil.name()
+      val typeSpecBuilder = generateTypeSpecFor(stencil, rPackageName, traitMap, superinterfaceClassName, profiler,
+          memberCache)
+      val fileSpec = profiler.time(name, GenerationProfiler.PHASE_FILE_SPEC) {
+        generateFileSpecFor(stencil, viewPackageName, typeSpecBuilder)
+      }
+      if (lint.mode != AllocationLint.Mode.OFF) {
+        profiler.time(name, GenerationProfiler.PHASE_LINT) {
+          lint.check(name, methodsOf(fileSpec), kotlin = sourceFileExtension == "kt")
+        }
+      }
+      if (baselineProfile != null) {
+        val hotMethods = HashSet<String>(AllocationLint.HOT_METHODS + BaselineProfile.CREATION_METHODS)
+        stencil.traits()
+            .mapNotNull { traitName -> traitMap[traitName] as? HotMethodsTrait }
+            .forEach { hotMethods.addAll(it.hotMethods(name)) }
+        baselineRules.add(viewPackageName, name, methodsOf(fileSpec).map { it.first }.filter { it in hotMethods })
+      }
+      profiler.time(name, GenerationProfiler.PHASE_OUTPUT) {
+        if (formatSource) {
+          writeFileWithFormatting(fileSpec, outputDir, typeSpecBuilder, viewPackageName, formatterPool, fileWriter)
+        } else {
+          writeFile(fileSpec, outputDir, fileWriter)
+        }
+      }
+      formatterPool.formattingTime("$name.$sourceFileExtension")?.let {
+        profiler.record(name, GenerationProfiler.PHASE_FORMAT, it)
+      }
+    }
+    val writeType = { typeSpecBuilder: OutputType, fileSpec: OutputFileType ->
       if (formatSource) {
-        writeFileWithFormatting(fileSpec, outputDir, typeSpecBuilder, viewPackageName)
+        writeFileWithFormatting(fileSpec, outputDir, typeSpecBuilder, viewPackageName, formatterPool, fileWriter)
       } else {
-        writeFile(fileSpec, outputDir)
+        writeFile(fileSpec, outputDir, fileWriter)
       }
     }
+    val factoryName = "${viewNamePrefix}LayoutInflaterFactory"
+    val writeInflaterFactory = {
+      if (generateInflaterFactory) {
+        val typeSpecBuilder = generateInflaterFactoryFor(viewStencils, viewPackageName, factoryName)
+        if (baselineProfile != null) {
+          baselineRules.add(viewPackageName, factoryName, listOf("onCreateView"))
+        }
+        writeType(typeSpecBuilder, generateFileSpecFor(viewPackageName, typeSpecBuilder))
+      }
+    }
+    val supportTypes = supportTypesFor(viewStencils, traitMap, viewPackageName)
+    val writeSupportTypes = { supportTypes.forEach { (typeSpecBuilder, fileSpec) -> writeType(typeSpecBuilder, fileSpec) } }
+
+    if (stateFile == null) {
+      generate(viewStencils, parallelism, generateView)
+      writeInflaterFactory()
+      writeSupportTypes()
+      lint.verify()
+      baselineProfile?.let { baselineRules.writeTo(it) }
+      return GenerationResult(formatterPool.formattingTimes, fileWriter.writtenFiles, fileWriter.skippedFiles, profiler,
+          lint.findings)
+    }
+
+    val fingerprintState = StencilFingerprintState(stateFile)
+    val previousFingerprints = fingerprintState.read()
+    val fingerprinter = StencilFingerprinter(javaClass,
+        listOf(viewPackageName, rPackageName, superinterfaceClassName, viewNamePrefix, formatSource, allocationLint,
+            baselineProfile != null))
+    val fingerprints = LinkedHashMap<String, String>()
+    val stencilsByPath = LinkedHashMap<String, ViewStencilType>()
+    viewStencils.forEach {
+      val path = outputPathFor(it, viewPackageName)
+      fingerprints[path] = fingerprinter.fingerprint(it, traitMap)
+      stencilsByPath[path] = it
+    }
+    if (generateInflaterFactory) {
+      // The factory depends on all stencils, so it is generated on every run and only written when it changed.
+      fingerprints[outputPathFor(factoryName, viewPackageName)] = "inflaterFactory"
+    }
+    // Support types are cheap to generate, so they are treated like the factory.
+    supportTypes.forEach { (_, fileSpec) -> fingerprints[outputPathFor(typeNameOf(fileSpec), viewPackageName)] = "supportType" }
+
+    if (previousFingerprints == null) {
+      // Files that are still up to date are kept as they are, the writer leaves them untouched if their content matches.
+      if (ownsOutputDir) {
+        outputDir.walkTopDown()
+            .filter { it.isFile && it.relativeTo(outputDir).invariantSeparatorsPath !in fingerprints }
+            .forEach { it.delete() }
+      }
+    } else {
+      previousFingerprints.keys
+          .filter { it !in fingerprints }
+          .forEach { File(outputDir, it).delete() }
+    }
+
+    val changedStencils = stencilsByPath
+        .filter { (path, _) -> previousFingerprints?.get(path) != fingerprints[path] || !File(outputDir, path).isFile }
+        .values
+    generate(changedStencils, parallelism, generateView)
+    writeInflaterFactory()
+    writeSupportTypes()
+    // Failing before the state is written regenerates, and thus checks, the same views again on the next run.
+    lint.verify()
+    baselineProfile?.let { file ->
+      baselineRules.writeTo(file, (stencilsByPath.values - changedStencils).map { viewPackageName to it.name() })
+    }
+    fingerprintState.write(fingerprints)
+    return GenerationResult(formatterPool.formattingTimes, fileWriter.writtenFiles, fileWriter.skippedFiles, profiler,
+        lint.findings)
+  }
+
+  /**
+   * The support types of all traits used by [viewStencils], see [SupportTypesTrait], with their file specs.
+   */
+  private fun supportTypesFor(
+      viewStencils: Set<ViewStencilType>,
+      traitMap: Map<Class<out TraitType>, TraitType>,
+      viewPackageName: String): List<Pair<OutputType, OutputFileType>> {
+    val supportTypes = LinkedHashMap<String, Pair<OutputType, OutputFileType>>()
+    @Suppress("UNCHECKED_CAST")
+    viewStencils.flatMap { it.traits() }
+        .distinct()
+        .mapNotNull { traitName -> traitMap[traitName] as? SupportTypesTrait<OutputType> }
+        .flatMap { it.supportTypes() }
+        .forEach { typeSpecBuilder ->
+          val fileSpec = generateFileSpecFor(viewPackageName, typeSpecBuilder)
+          val name = typeNameOf(fileSpec)
+          if (name !in supportTypes) {
+            supportTypes[name] = typeSpecBuilder to fileSpec
+          }
+        }
+    return supportTypes.values.toList()
+  }
+
+  private fun generate(
+      viewStencils: Collection<ViewStencilType>,
+      parallelism: Int,
+      generateView: (ViewStencilType) -> Unit) {
+    if (parallelism <= 1 || viewStencils.size <= 1) {
+      viewStencils.forEach(generateView)
+    } else {
+      val executor = Executors.newFixedThreadPool(minOf(parallelism, viewStencils.size), GeneratorThreadFactory())
+      try {
+        // Every stencil writes its own file, so the output does not depend on scheduling. Results are awaited in
+        // stencil order so that the reported failure is the same one a sequential run would hit first.
+        viewStencils
+            .map { stencil -> executor.submit(Callable { generateView(stencil) }) }
+            .forEach { it.await() }
+      } finally {
+        executor.shutdownNow()
+      }
+    }
+  }
+
+  /**
+   * The path of the file generated for a stencil, relative to the output directory.
+   */
+  private fun outputPathFor(stencil: ViewStencilType, viewPackageName: String): String {
+    return outputPathFor(stencil.name(), viewPackageName)
   }
 
+  private fun outputPathFor(typeName: String, viewPackageName: String): String {
+    val packagePath = viewPackageName.split('.').filter { it.isNotEmpty() }.joinToString("/")
+    val fileName = "$typeName.$sourceFileExtension"
+    return if (packagePath.isEmpty()) fileName else "$packagePath/$fileName"
+  }
+
+  protected abstract fun createStencil(stencil: StencilManifest.Stencil, addedTraits: List<Class<out TraitType>>): ViewStencilType
+
+  /**
+   * Generates a `LayoutInflater.Factory2` named [factoryName] that creates the views of [stencils] from their
+   * [inflaterTagsFor], falling back to an optional delegate factory for any other name.
+   */
+  protected abstract fun generateInflaterFactoryFor(
+      stencils: Collection<ViewStencilType>,
+      viewPackageName: String,
+      factoryName: String): OutputType
+
+  /**
+   * The layout tags the inflater factory creates the view of [stencil] for: its fully qualified name and, if views are
+   * prefixed, its simple name. Without a prefix, the simple name is the tag of the framework view the stencil extends,
+   * which must still create that view.
+   */
+  protected fun inflaterTagsFor(stencil: ViewStencilType, viewPackageName: String): List<String> {
+    val name = stencil.name()
+    val tags = LinkedHashSet<String>()
+    if (viewPackageName.isNotEmpty()) {
+      tags.add("$viewPackageName.$name")
+    }
+    if (stencil.namePrefix.isNotEmpty()) {
+      tags.add(name)
+    }
+    return tags.toList()
+  }
+
+  protected abstract fun generateFileSpecFor(viewPackageName: String, typeSpecBuilder: OutputType): OutputFileType
+
   protected abstract fun generateFileSpecFor(stencil: ViewStencilType, viewPackageName: String, typeSpecBuilder: OutputType): OutputFileType
 
+  protected abstract fun typeNameOf(fileSpec: OutputFileType): String
+
+  /**
+   * The methods of the generated type, as pairs of method name and source.
+   */
+  protected abstract fun methodsOf(fileSpec: OutputFileType): List<Pair<String, String>>
+
   protected abstract fun generateTypeSpecFor(
       stencil: ViewStencilType,
       rPackageName: String,
       traitMap: Map<Class<out TraitType>, TraitType>,
-      superinterfaceClassName: String?): OutputType
+      superinterfaceClassName: String?,
+      profiler: GenerationProfiler,
+      memberCache: TraitMemberCache): OutputType
+
+  /**
+   * Lets each trait of the stencil contribute to the generated type and then lets its [FinishingTrait]s finish it, timing
+   * every trait separately. [MemoizingTrait]s and [FinishingTrait]s get the [memberCache] of the generation.
+   */
+  protected fun generateTraitsFor(
+      stencil: ViewStencilType,
+      traitMap: Map<Class<out TraitType>, TraitType>,
+      type: OutputType,
+      initMethod: FunType,
+      rClass: ClassName,
+      profiler: GenerationProfiler,
+      memberCache: TraitMemberCache) {
+    val name = stencil.name()
+    val stencilTraits = stencil.traits().mapNotNull { traitName -> traitMap[traitName] }
+    @Suppress("UNCHECKED_CAST")
+    stencilTraits.forEach {
+      profiler.time(name, GenerationProfiler.PHASE_TRAIT_PREFIX + it.javaClass.simpleName) {
+        val memoizingTrait = it as? MemoizingTrait<OutputType, FunType, ClassName>
+        if (memoizingTrait != null) {
+          memoizingTrait.generateFor(type, initMethod, rClass, name, memberCache)
+        } else {
+          it.generateFor(type, initMethod, rClass, name)
+        }
+      }
+    }
+    @Suppress("UNCHECKED_CAST")
+    stencilTraits.forEach {
+      (it as? FinishingTrait<OutputType, FunType, ClassName>)?.let { trait ->
+        profiler.time(name, GenerationProfiler.PHASE_TRAIT_PREFIX + it.javaClass.simpleName) {
+          trait.finishFor(type, initMethod, rClass, name, memberCache)
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads the attributes of the stencil and of its [AttrsTrait]s from a single `TypedArray` in `init()`, rather than
+   * letting each of them obtain one of their own.
+   */
+  protected fun generateAttrsFor(
+      stencil: ViewStencilType,
+      traitMap: Map<Class<out TraitType>, TraitType>,
+      type: OutputType,
+      initMethod: FunType,
+      rClass: ClassName,
+      profiler: GenerationProfiler) {
+    val name = stencil.name()
+    @Suppress("UNCHECKED_CAST")
+    val attrsTraits = stencil.traits()
+        .mapNotNull { traitName -> traitMap[traitName] as? AttrsTrait<OutputType, FunType, ClassName, CodeBlock> }
+    val attrs = LinkedHashSet<ViewAttr>(stencil.attrs())
+    attrsTraits.forEach { attrs.addAll(it.attrs(name)) }
+    if (attrs.isEmpty()) {
+      return
+    }
+
+    profiler.time(name, GenerationProfiler.PHASE_ATTRS) {
+      val attrsCode = ArrayList<CodeBlock>()
+      stencil.attrsHook(type, initMethod)?.let { attrsCode.add(it) }
+      attrsTraits.forEach { trait -> trait.attrsHook(type, initMethod, rClass, name)?.let { attrsCode.add(it) } }
+      generateAttrsReadFor(type, initMethod, rClass, attrs, attrsCode)
+    }
+  }
+
+  /**
+   * Generates the shared array of [attrs], sorted as `obtainStyledAttributes` requires, the constants holding the index
+   * of each attribute and the code in `init()` running [attrsCode] on the obtained `TypedArray`.
+   */
+  protected abstract fun generateAttrsReadFor(
+      type: OutputType,
+      initMethod: FunType,
+      rClass: ClassName,
+      attrs: Set<ViewAttr>,
+      attrsCode: List<CodeBlock>)
 
   protected abstract fun createInitBuilderFor(stencil: ViewStencilType, type: OutputType): FunType
 
@@ -87,9 +468,40 @@ abstract class ArtistCodeGenerator<
 
   protected abstract fun superinterface(className: String): ClassName
 
-  protected abstract fun writeFile(fileSpec: OutputFileType, outputDir: File)
+  protected abstract fun writeFile(fileSpec: OutputFileType, outputDir: File, fileWriter: GeneratedFileWriter)
+
+  protected abstract fun writeFileWithFormatting(
+      fileSpec: OutputFileType,
+      outputDir: File,
+      outputType: OutputType,
+      viewPackageName: String,
+      formatterPool: FormatterPool,
+      fileWriter: GeneratedFileWriter)
+
+  private fun Future<*>.await() {
+    try {
+      get()
+    } catch (e: ExecutionException) {
+      throw e.cause ?: e
+    }
+  }
 
-  protected abstract fun writeFileWithFormatting(fileSpec: OutputFileType, outputDir: File, outputType: OutputType, viewPackageName: String)
+  /**
+   * Creates daemon threads that share the caller's context class loader, which is where the [java.util.ServiceLoader]
+   * backed services find stencils, traits and their configuration.
+   */
+  private class GeneratorThreadFactory : ThreadFactory {
+
+    private val contextClassLoader = Thread.currentThread().contextClassLoader
+    private val count = AtomicInteger()
+
+    override fun newThread(runnable: Runnable): Thread {
+      return Thread(runnable, "artist-generator-${count.incrementAndGet()}").apply {
+        isDaemon = true
+        contextClassLoader = this@GeneratorThreadFactory.contextClassLoader
+      }
+    }
+  }
 
   protected fun superConstructorStatement(count: Int): String {
     when (count) {
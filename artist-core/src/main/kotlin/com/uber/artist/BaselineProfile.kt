@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist
+
+import java.io.File
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Collects ART baseline profile rules, in the `baseline-prof.txt` format, for the generated views. Apps can ship them
+ * to have the views compiled ahead of time, rather than interpreted while the first screens inflate them.
+ *
+ * Every generated class gets a class rule and each of its hot methods a rule flagged as hot, startup and post-startup.
+ * Methods are matched by name, with wildcards for their descriptors, so a rule covers all overloads of a method.
+ *
+ * Safe to use from multiple threads.
+ */
+class BaselineProfile {
+
+  companion object {
+    private const val CONSTRUCTOR = "<init>"
+
+    /**
+     * Names of constructors, as JavaPoet and KotlinPoet call them.
+     */
+    private val CONSTRUCTOR_NAMES = setOf(CONSTRUCTOR, "constructor")
+
+    /**
+     * The methods of every generated view that run while it is created, besides its constructors.
+     */
+    val CREATION_METHODS = setOf("init")
+  }
+
+  private val rulesByClass = ConcurrentHashMap<String, List<String>>()
+
+  /**
+   * Adds rules for the generated class [className] in [packageName] and its methods named [methods]. Constructors are
+   * always hot.
+   */
+  fun add(packageName: String, className: String, methods: Collection<String>) {
+    val descriptor = descriptorOf(packageName, className)
+    val methodNames = sortedSetOf(CONSTRUCTOR)
+    methods.filter { it !in CONSTRUCTOR_NAMES }.forEach { methodNames.add(it) }
+    rulesByClass[descriptor] = listOf(descriptor) + methodNames.map { "HSP$descriptor->$it(**)**" }
+  }
+
+  /**
+   * Writes the rules added so far to [file]. The rules of [keptClasses] that are already in the file are kept, so an
+   * incremental run only has to add the rules of the views it regenerated. The file isn't touched if it didn't change.
+   *
+   * @param keptClasses Pairs of package and class name.
+   */
+  fun writeTo(file: File, keptClasses: Collection<Pair<String, String>> = emptyList()) {
+    val rules = LinkedHashMap<String, List<String>>()
+    if (keptClasses.isNotEmpty() && file.isFile) {
+      val kept = keptClasses.map { (packageName, className) -> descriptorOf(packageName, className) }.toSet()
+      file.readLines()
+          .filter { it.isNotBlank() }
+          .groupBy { it.trimStart('H', 'S', 'P').substringBefore(';') + ";" }
+          .filterKeys { it in kept }
+          .forEach { (descriptor, classRules) -> rules[descriptor] = classRules }
+    }
+    rules.putAll(rulesByClass)
+
+    val content = rules.keys.sorted().flatMap { rules.getValue(it) }.joinToString("\n", postfix = "\n")
+    if (file.isFile && file.readText() == content) {
+      return
+    }
+    file.parentFile?.mkdirs()
+    file.writeText(content)
+  }
+
+  private fun descriptorOf(packageName: String, className: String): String {
+    val packagePath = packageName.split('.').filter { it.isNotEmpty() }.joinToString("/")
+    return if (packagePath.isEmpty()) "L$className;" else "L$packagePath/$className;"
+  }
+}
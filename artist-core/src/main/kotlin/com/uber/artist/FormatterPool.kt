@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist
+
+import com.google.googlejavaformat.java.Formatter
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+
+/**
+ * Hands out google-java-format [Formatter]s to the files of a generation run, so that formatters are created once per
+ * run and reused instead of once per file. Files can be formatted concurrently; each concurrent caller borrows its own
+ * formatter, so the pool never holds more formatters than there were files being formatted at the same time.
+ */
+class FormatterPool {
+
+  private val formatters = ConcurrentLinkedQueue<Formatter>()
+  private val formattingNanos = ConcurrentHashMap<String, Long>()
+
+  /**
+   * The time spent formatting each file, in nanoseconds, keyed by file name.
+   */
+  val formattingTimes: Map<String, Long>
+    get() = formattingNanos.toMap()
+
+  /**
+   * Gets the time spent formatting [fileName], in nanoseconds, or null if it wasn't formatted.
+   */
+  fun formattingTime(fileName: String): Long? = formattingNanos[fileName]
+
+  /**
+   * Formats [source] with a pooled formatter and records the time it took for [fileName].
+   *
+   * @return The formatted source.
+   */
+  fun formatSource(fileName: String, source: CharSequence): String {
+    val formatter = formatters.poll() ?: Formatter()
+    val start = System.nanoTime()
+    try {
+      return formatter.formatSource(source.toString())
+    } finally {
+      formattingNanos[fileName] = System.nanoTime() - start
+      formatters.offer(formatter)
+    }
+  }
+}
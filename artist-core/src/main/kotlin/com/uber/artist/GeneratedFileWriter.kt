@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist
+
+import com.google.common.base.Preconditions.checkArgument
+import com.google.common.hash.Hashing
+import java.io.File
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.Files
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Writes the generated files of a run, skipping files whose content on disk is already identical. Leaving those files
+ * untouched keeps their timestamps, so compilers and compile avoidance don't see unchanged views as changed.
+ *
+ * Safe to use from multiple threads as long as each file is written by only one of them. Subclasses can write the
+ * files elsewhere, e.g. through an annotation processor's Filer, by overriding [write] and reporting each file through
+ * [recordWritten] or [recordSkipped].
+ */
+open class GeneratedFileWriter {
+
+  private val packageSplitRegex = "\\.".toRegex()
+  private val hashFunction = Hashing.sha256()
+  private val written = AtomicInteger()
+  private val skipped = AtomicInteger()
+
+  /**
+   * The number of files that were written because they were new or their content changed.
+   */
+  val writtenFiles: Int
+    get() = written.get()
+
+  /**
+   * The number of files that were skipped because their content did not change.
+   */
+  val skippedFiles: Int
+    get() = skipped.get()
+
+  /**
+   * Writes [content] to the file named [fileName] in the directory of [packageName] under [directory], unless that file
+   * already has the same content.
+   */
+  open fun write(directory: File, packageName: String, fileName: String, content: CharSequence) {
+    val directoryPath = directory.toPath()
+    checkArgument(Files.notExists(directoryPath) || Files.isDirectory(directoryPath),
+        "path %s exists but is not a directoryPath.", directoryPath)
+    var outputDirectory = directoryPath
+    packageName.split(packageSplitRegex)
+        .filter { !it.isEmpty() }
+        .forEach { outputDirectory = outputDirectory.resolve(it) }
+    Files.createDirectories(outputDirectory)
+
+    val outputPath = outputDirectory.resolve(fileName)
+    val bytes = content.toString().toByteArray(UTF_8)
+    if (Files.isRegularFile(outputPath)
+        && Files.size(outputPath) == bytes.size.toLong()
+        && hashFunction.hashBytes(Files.readAllBytes(outputPath)) == hashFunction.hashBytes(bytes)) {
+      recordSkipped()
+      return
+    }
+    Files.write(outputPath, bytes)
+    recordWritten()
+  }
+
+  protected fun recordWritten() {
+    written.incrementAndGet()
+  }
+
+  protected fun recordSkipped() {
+    skipped.incrementAndGet()
+  }
+}
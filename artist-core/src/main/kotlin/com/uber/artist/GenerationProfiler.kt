@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist
+
+import java.io.File
+import java.nio.charset.StandardCharsets.UTF_8
+import java.util.concurrent.ConcurrentLinkedQueue
+
+/**
+ * Times the phases of generating each view: building constructors and the init method, every trait's
+ * [com.uber.artist.api.Trait.generateFor], the stencil's type hook, building the file and writing it out. Disabled
+ * profilers only run the timed code.
+ *
+ * Safe to use from multiple threads.
+ */
+class GenerationProfiler(val enabled: Boolean) {
+
+  private val timings = ConcurrentLinkedQueue<Timing>()
+
+  /**
+   * Runs [block], recording how long it took as [phase] of generating [stencil].
+   */
+  fun <T> time(stencil: String, phase: String, block: () -> T): T {
+    if (!enabled) {
+      return block()
+    }
+    val start = System.nanoTime()
+    try {
+      return block()
+    } finally {
+      record(stencil, phase, System.nanoTime() - start)
+    }
+  }
+
+  /**
+   * Records a time measured elsewhere as [phase] of generating [stencil].
+   */
+  fun record(stencil: String, phase: String, nanos: Long) {
+    if (enabled) {
+      timings.add(Timing(stencil, phase, nanos))
+    }
+  }
+
+  /**
+   * Gets the recorded timings, sorted by stencil in the order their phases were recorded.
+   */
+  fun timings(): List<Timing> = timings.sortedBy { it.stencil }
+
+  /**
+   * Writes the recorded timings as a JSON array of `{"stencil", "phase", "nanos"}` objects.
+   */
+  fun writeJsonTo(file: File) {
+    file.parentFile?.mkdirs()
+    file.writeText(timings().joinToString(separator = ",\n", prefix = "[\n", postfix = "\n]\n") {
+      "  {\"stencil\": ${it.stencil.toJson()}, \"phase\": ${it.phase.toJson()}, \"nanos\": ${it.nanos}}"
+    }, UTF_8)
+  }
+
+  /**
+   * Writes the recorded timings as CSV with a `stencil,phase,nanos` header.
+   */
+  fun writeCsvTo(file: File) {
+    file.parentFile?.mkdirs()
+    file.writeText(timings().joinToString(separator = "\n", prefix = "stencil,phase,nanos\n", postfix = "\n") {
+      "${it.stencil.toCsv()},${it.phase.toCsv()},${it.nanos}"
+    }, UTF_8)
+  }
+
+  private fun String.toJson(): String = "\"" + replace("\\", "\\\\").replace("\"", "\\\"") + "\""
+
+  private fun String.toCsv(): String = if (contains(',') || contains('"')) "\"" + replace("\"", "\"\"") + "\"" else this
+
+  /**
+   * The time spent on one phase of generating a view.
+   *
+   * @param stencil The name of the generated view.
+   * @param phase The phase, e.g. `constructors` or `trait:JavaViewTrait`.
+   * @param nanos The time spent, in nanoseconds.
+   */
+  data class Timing(val stencil: String, val phase: String, val nanos: Long)
+
+  companion object {
+    const val PHASE_CONSTRUCTORS = "constructors"
+    const val PHASE_INIT_METHOD = "initMethod"
+    const val PHASE_TRAIT_PREFIX = "trait:"
+    const val PHASE_ATTRS = "attrs"
+    const val PHASE_TYPE_HOOK = "typeHook"
+    const val PHASE_FILE_SPEC = "fileSpec"
+    const val PHASE_LINT = "lint"
+    const val PHASE_OUTPUT = "output"
+    const val PHASE_FORMAT = "format"
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist
+
+/**
+ * Describes the outcome of a generation run.
+ *
+ * @param formattingTimes The time spent formatting each generated file, in nanoseconds, keyed by file name. Empty when
+ * sources are not formatted or when no file needed to be generated.
+ * @param writtenFiles The number of generated files that were written because they were new or their content changed.
+ * @param skippedFiles The number of generated files that were left untouched because their content did not change.
+ * @param profile The timings of the generated views, if profiling was enabled.
+ * @param allocationFindings The allocations [AllocationLint] found in frame-critical methods of the generated views.
+ */
+class GenerationResult(
+    val formattingTimes: Map<String, Long>,
+    val writtenFiles: Int,
+    val skippedFiles: Int,
+    val profile: GenerationProfiler,
+    val allocationFindings: List<String> = emptyList())
@@ -17,40 +17,139 @@
 package com.uber.artist
 
 import com.squareup.javapoet.AnnotationSpec
+import com.squareup.javapoet.ArrayTypeName
 import com.squareup.javapoet.ClassName
 import com.squareup.javapoet.CodeBlock
+import com.squareup.javapoet.FieldSpec
 import com.squareup.javapoet.JavaFile
 import com.squareup.javapoet.MethodSpec
 import com.squareup.javapoet.ParameterSpec
+import com.squareup.javapoet.TypeName
 import com.squareup.javapoet.TypeSpec
 import com.uber.artist.api.JavaTrait
 import com.uber.artist.api.JavaTraitService
 import com.uber.artist.api.JavaViewStencil
 import com.uber.artist.api.JavaViewStencilService
+import com.uber.artist.api.TraitMemberCache
 import com.uber.artist.api.TypeNames
+import com.uber.artist.api.ViewAttr
 import java.io.File
+import java.util.Arrays
 import javax.lang.model.element.Modifier
 
 class JavaArtistCodeGenerator : ArtistCodeGenerator<JavaFile, TypeSpec.Builder, MethodSpec.Builder, ClassName, CodeBlock, JavaViewStencil, JavaTrait>() {
 
+  companion object {
+    private const val ATTRS_FIELD = "ARTIST_ATTRS"
+  }
+
+  private val viewStencilService by lazy { JavaViewStencilService.newInstance() }
+
   override val viewStencils: Set<JavaViewStencil>
-    get() = JavaViewStencilService.newInstance().getStencils()
+    get() = viewStencilService.getStencils()
 
   override val traits: Set<JavaTrait>
     get() = JavaTraitService.newInstance().get()
 
   override val globalTraits: Set<Class<out JavaTrait>>
-    get() = JavaViewStencilService.newInstance().getGlobalTraits()
+    get() = viewStencilService.getGlobalTraits()
+
+  override val traitType = JavaTrait::class.java
+
+  override val sourceFileExtension = "java"
+
+  override fun createStencil(stencil: StencilManifest.Stencil, addedTraits: List<Class<out JavaTrait>>): JavaViewStencil {
+    return JavaViewStencil(stencil.extendedType, stencil.constructorCount, stencil.defaultAttrRes, *addedTraits.toTypedArray())
+  }
 
   override fun generateFileSpecFor(stencil: JavaViewStencil, viewPackageName: String, typeSpecBuilder: TypeSpec.Builder): JavaFile {
     return JavaFile.builder(viewPackageName, typeSpecBuilder.build()).build()
   }
 
+  override fun generateFileSpecFor(viewPackageName: String, typeSpecBuilder: TypeSpec.Builder): JavaFile {
+    return JavaFile.builder(viewPackageName, typeSpecBuilder.build()).build()
+  }
+
+  override fun generateInflaterFactoryFor(
+      stencils: Collection<JavaViewStencil>,
+      viewPackageName: String,
+      factoryName: String): TypeSpec.Builder {
+    val delegate = FieldSpec.builder(TypeNames.Android.LayoutInflaterFactory2, "delegate", Modifier.PRIVATE, Modifier.FINAL)
+        .addAnnotation(TypeNames.Annotations.Nullable)
+        .build()
+    val createView = CodeBlock.builder().beginControlFlow("switch (name)")
+    // Only stencils with a (Context, AttributeSet) constructor can be inflated.
+    stencils.filter { it.constructorCount >= 2 }.sortedBy { it.name() }.forEach {
+      val viewType = ClassName.get(viewPackageName, it.name())
+      val tags = inflaterTagsFor(it, viewPackageName)
+      if (tags.isNotEmpty()) {
+        tags.forEach { tag -> createView.add("case \$S:\n", tag) }
+        createView.indent()
+            .addStatement("return new \$T(context, attrs)", viewType)
+            .unindent()
+      }
+    }
+    createView.add("default:\n")
+        .indent()
+        .addStatement("return \$N != null ? \$N.onCreateView(parent, name, context, attrs) : null", delegate, delegate)
+        .unindent()
+        .endControlFlow()
+
+    return TypeSpec.classBuilder(factoryName)
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addSuperinterface(TypeNames.Android.LayoutInflaterFactory2)
+        .addField(delegate)
+        .addMethod(MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .addStatement("this(null)")
+            .build())
+        .addMethod(MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(ParameterSpec.builder(TypeNames.Android.LayoutInflaterFactory2, "delegate")
+                .addAnnotation(TypeNames.Annotations.Nullable)
+                .build())
+            .addStatement("this.\$N = \$N", delegate, "delegate")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("onCreateView")
+            .addAnnotation(Override::class.java)
+            .addAnnotation(TypeNames.Annotations.Nullable)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(TypeNames.Android.View)
+            .addParameter(ParameterSpec.builder(TypeNames.Android.View, "parent")
+                .addAnnotation(TypeNames.Annotations.Nullable)
+                .build())
+            .addParameter(TypeNames.Java.String, "name")
+            .addParameter(TypeNames.Android.Context, "context")
+            .addParameter(TypeNames.Android.AttributeSet, "attrs")
+            .addCode(createView.build())
+            .build())
+        .addMethod(MethodSpec.methodBuilder("onCreateView")
+            .addAnnotation(Override::class.java)
+            .addAnnotation(TypeNames.Annotations.Nullable)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(TypeNames.Android.View)
+            .addParameter(TypeNames.Java.String, "name")
+            .addParameter(TypeNames.Android.Context, "context")
+            .addParameter(TypeNames.Android.AttributeSet, "attrs")
+            .addStatement("return onCreateView(null, name, context, attrs)")
+            .build())
+  }
+
+  override fun typeNameOf(fileSpec: JavaFile): String {
+    return fileSpec.typeSpec.name
+  }
+
+  override fun methodsOf(fileSpec: JavaFile): List<Pair<String, String>> {
+    return fileSpec.typeSpec.methodSpecs.map { it.name to it.code.toString() }
+  }
+
   override fun generateTypeSpecFor(
       stencil: JavaViewStencil,
       rPackageName: String,
       traitMap: Map<Class<out JavaTrait>, JavaTrait>,
-      superinterfaceClassName: String?): TypeSpec.Builder {
+      superinterfaceClassName: String?,
+      profiler: GenerationProfiler,
+      memberCache: TraitMemberCache): TypeSpec.Builder {
     val rClass = ClassName.get(rPackageName, "R")
     val typeBuilder = TypeSpec.classBuilder(stencil.name())
         .addModifiers(Modifier.PUBLIC)
@@ -58,18 +157,66 @@ class JavaArtistCodeGenerator : ArtistCodeGenerator<JavaFile, TypeSpec.Builder,
 
     superinterfaceClassName?.let { typeBuilder.addSuperinterface(superinterface(superinterfaceClassName)) }
 
-    generateConstructorsFor(stencil, typeBuilder, rClass)
-    val initMethod = createInitBuilderFor(stencil, typeBuilder)
+    profiler.time(stencil.name(), GenerationProfiler.PHASE_CONSTRUCTORS) {
+      generateConstructorsFor(stencil, typeBuilder, rClass)
+    }
+    val initMethod = profiler.time(stencil.name(), GenerationProfiler.PHASE_INIT_METHOD) {
+      createInitBuilderFor(stencil, typeBuilder)
+    }
 
-    stencil.traits()
-        .map { traitName -> traitMap[traitName] }
-        .forEach { it?.generateFor(typeBuilder, initMethod, rClass, stencil.name()) }
+    generateTraitsFor(stencil, traitMap, typeBuilder, initMethod, rClass, profiler, memberCache)
+    generateAttrsFor(stencil, traitMap, typeBuilder, initMethod, rClass, profiler)
 
     typeBuilder.addMethod(initMethod.build())
-    stencil.typeHook(typeBuilder)
+    profiler.time(stencil.name(), GenerationProfiler.PHASE_TYPE_HOOK) {
+      stencil.typeHook(typeBuilder)
+    }
     return typeBuilder
   }
 
+  override fun generateAttrsReadFor(
+      type: TypeSpec.Builder,
+      initMethod: MethodSpec.Builder,
+      rClass: ClassName,
+      attrs: Set<ViewAttr>,
+      attrsCode: List<CodeBlock>) {
+    // android.R is always written out, as an import would shadow the app's R class.
+    val attrReference = { attr: ViewAttr ->
+      if (attr.android) {
+        CodeBlock.of("android.R.attr.\$L", attr.name)
+      } else {
+        CodeBlock.of("\$T.\$L", rClass.nestedClass("attr"), attr.name)
+      }
+    }
+    type.addField(FieldSpec.builder(ArrayTypeName.of(TypeName.INT), ATTRS_FIELD, Modifier.PRIVATE, Modifier.STATIC,
+        Modifier.FINAL)
+        .initializer(CodeBlock.builder()
+            .add("{")
+            .apply {
+              attrs.forEachIndexed { index, attr ->
+                add(if (index == 0) "\$L" else ", \$L", attrReference(attr))
+              }
+            }
+            .add("}")
+            .build())
+        .build())
+
+    // R.attr values are only known at runtime, so the array is sorted and the indices looked up once per class.
+    val staticBlock = CodeBlock.builder()
+        .addStatement("\$T.sort(\$N)", Arrays::class.java, ATTRS_FIELD)
+    attrs.forEach { attr ->
+      type.addField(TypeName.INT, attr.indexName, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+      staticBlock.addStatement("\$N = \$T.binarySearch(\$N, \$L)", attr.indexName, Arrays::class.java, ATTRS_FIELD,
+          attrReference(attr))
+    }
+    type.addStaticBlock(staticBlock.build())
+
+    initMethod.addStatement("\$T a = context.obtainStyledAttributes(attrs, \$N)", TypeNames.Android.TypedArray,
+        ATTRS_FIELD)
+    attrsCode.forEach { initMethod.addCode(it) }
+    initMethod.addStatement("a.recycle()")
+  }
+
   override fun createInitBuilderFor(
       stencil: JavaViewStencil,
       type: TypeSpec.Builder): MethodSpec.Builder {
@@ -189,11 +336,19 @@ class JavaArtistCodeGenerator : ArtistCodeGenerator<JavaFile, TypeSpec.Builder,
     return ClassName.get(packageName, simpleName)
   }
 
-  override fun writeFile(fileSpec: JavaFile, outputDir: File) {
-    fileSpec.writeTo(outputDir)
+  override fun writeFile(fileSpec: JavaFile, outputDir: File, fileWriter: GeneratedFileWriter) {
+    val source = StringBuilder()
+    fileSpec.writeTo(source)
+    fileWriter.write(outputDir, fileSpec.packageName, fileSpec.typeSpec.name + ".java", source)
   }
 
-  override fun writeFileWithFormatting(fileSpec: JavaFile, outputDir: File, outputType: TypeSpec.Builder, packageName: String) {
-    JavaFormattingFileWriter(fileSpec, outputType, packageName).writeWithFormattingTo(outputDir)
+  override fun writeFileWithFormatting(
+      fileSpec: JavaFile,
+      outputDir: File,
+      outputType: TypeSpec.Builder,
+      viewPackageName: String,
+      formatterPool: FormatterPool,
+      fileWriter: GeneratedFileWriter) {
+    JavaFormattingFileWriter(fileSpec, outputType, viewPackageName, formatterPool, fileWriter).writeWithFormattingTo(outputDir)
   }
 }
@@ -16,57 +16,31 @@
 
 package com.uber.artist
 
-import com.google.common.base.Preconditions.checkArgument
-import com.google.common.io.CharSink
-import com.google.common.io.CharSource
-import com.google.googlejavaformat.java.Formatter
 import com.google.googlejavaformat.java.FormatterException
 import com.squareup.javapoet.JavaFile
 import com.squareup.javapoet.TypeSpec
 import java.io.File
 import java.io.IOException
-import java.io.OutputStreamWriter
-import java.io.Writer
-import java.nio.charset.StandardCharsets.UTF_8
-import java.nio.file.Files
 
-class JavaFormattingFileWriter(val outputFile: JavaFile, val typeSpecBuilder: TypeSpec.Builder, val packageName: String) : FormattingFileWriter<JavaFile, TypeSpec.Builder>() {
-
-  private val formatter: Formatter = Formatter()
+class JavaFormattingFileWriter(
+    val outputFile: JavaFile,
+    val typeSpecBuilder: TypeSpec.Builder,
+    val packageName: String,
+    private val formatterPool: FormatterPool = FormatterPool(),
+    private val fileWriter: GeneratedFileWriter = GeneratedFileWriter()) : FormattingFileWriter<JavaFile, TypeSpec.Builder>() {
 
   /**
    * A file writer function that formats the code before writing out to the file system.
    */
   override fun writeWithFormattingTo(directory: File) {
-    val directoryPath = directory.toPath()
-    checkArgument(Files.notExists(directoryPath) || Files.isDirectory(directoryPath),
-        "path %s exists but is not a directoryPath.", directoryPath)
-    var outputDirectory = directoryPath
-    if (!packageName.isEmpty()) {
-      for (packageComponent in packageName.split(packageSplitRegex)
-          .filter { !it.isEmpty() }.toTypedArray()) {
-        outputDirectory = outputDirectory.resolve(packageComponent)
-      }
-      Files.createDirectories(outputDirectory)
-    }
-
-    val typeSpec = typeSpecBuilder.build()
-    val outputPath = outputDirectory.resolve(typeSpec.name + ".java")
-    try {
-      OutputStreamWriter(Files.newOutputStream(outputPath), UTF_8).use { writer ->
-        val stringBuilder = StringBuilder(defaultFileSize)
-        outputFile.writeTo(stringBuilder)
-        formatter.formatSource(
-            CharSource.wrap(stringBuilder),
-            object : CharSink() {
-              @Throws(IOException::class)
-              override fun openStream(): Writer {
-                return writer
-              }
-            })
-      }
+    val fileName = typeSpecBuilder.build().name + ".java"
+    val stringBuilder = StringBuilder(defaultFileSize)
+    outputFile.writeTo(stringBuilder)
+    val formattedSource = try {
+      formatterPool.formatSource(fileName, stringBuilder)
     } catch (e: FormatterException) {
-      throw IOException("Error formatting " + outputPath.fileName.toString(), e)
+      throw IOException("Error formatting $fileName", e)
     }
+    fileWriter.write(directory, packageName, fileName, formattedSource)
   }
 }
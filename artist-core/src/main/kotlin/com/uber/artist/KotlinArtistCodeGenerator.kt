@@ -25,24 +25,42 @@ import com.squareup.kotlinpoet.FunSpec
 import com.squareup.kotlinpoet.INT
 import com.squareup.kotlinpoet.KModifier
 import com.squareup.kotlinpoet.ParameterSpec
+import com.squareup.kotlinpoet.PropertySpec
 import com.squareup.kotlinpoet.TypeSpec
+import com.squareup.kotlinpoet.asClassName
 import com.uber.artist.api.KotlinTrait
 import com.uber.artist.api.KotlinTraitService
 import com.uber.artist.api.KotlinTypeNames
 import com.uber.artist.api.KotlinViewStencil
 import com.uber.artist.api.KotlinViewStencilService
+import com.uber.artist.api.TraitMemberCache
+import com.uber.artist.api.ViewAttr
 import java.io.File
 
 class KotlinArtistCodeGenerator : ArtistCodeGenerator<FileSpec, TypeSpec.Builder, FunSpec.Builder, ClassName, CodeBlock, KotlinViewStencil, KotlinTrait>() {
 
+  companion object {
+    private const val ATTRS_PROPERTY = "ARTIST_ATTRS"
+  }
+
+  private val viewStencilService by lazy { KotlinViewStencilService.newInstance() }
+
   override val viewStencils: Set<KotlinViewStencil>
-    get() = KotlinViewStencilService.newInstance().getStencils()
+    get() = viewStencilService.getStencils()
 
   override val traits: Set<KotlinTrait>
     get() = KotlinTraitService.newInstance().get()
 
   override val globalTraits: Set<Class<out KotlinTrait>>
-    get() = KotlinViewStencilService.newInstance().getGlobalTraits()
+    get() = viewStencilService.getGlobalTraits()
+
+  override val traitType = KotlinTrait::class.java
+
+  override val sourceFileExtension = "kt"
+
+  override fun createStencil(stencil: StencilManifest.Stencil, addedTraits: List<Class<out KotlinTrait>>): KotlinViewStencil {
+    return KotlinViewStencil(stencil.extendedType, stencil.constructorCount, stencil.defaultAttrRes, *addedTraits.toTypedArray())
+  }
 
   override fun generateFileSpecFor(stencil: KotlinViewStencil, viewPackageName: String,
                                    typeSpecBuilder: TypeSpec.Builder): FileSpec {
@@ -56,11 +74,84 @@ class KotlinArtistCodeGenerator : ArtistCodeGenerator<FileSpec, TypeSpec.Builder
     return builder.addType(typeSpec).build()
   }
 
+  override fun generateFileSpecFor(viewPackageName: String, typeSpecBuilder: TypeSpec.Builder): FileSpec {
+    val typeSpec = typeSpecBuilder.build()
+    return FileSpec.builder(viewPackageName, typeSpec.name
+        ?: throw IllegalStateException("No name for type: $typeSpec"))
+        .addType(typeSpec)
+        .build()
+  }
+
+  override fun generateInflaterFactoryFor(
+      stencils: Collection<KotlinViewStencil>,
+      viewPackageName: String,
+      factoryName: String): TypeSpec.Builder {
+    val delegateType = KotlinTypeNames.Android.LayoutInflaterFactory2.copy(nullable = true)
+    val nullableView = KotlinTypeNames.Android.View.copy(nullable = true)
+    val createView = CodeBlock.builder().beginControlFlow("return when (name)")
+    // Only stencils with a (Context, AttributeSet) constructor can be inflated.
+    stencils.filter { it.constructorCount >= 2 }.sortedBy { it.name() }.forEach {
+      val viewType = ClassName(viewPackageName, it.name())
+      val tags = inflaterTagsFor(it, viewPackageName)
+      if (tags.isNotEmpty()) {
+        createView.addStatement("${tags.joinToString { "%S" }} -> %T(context, attrs)", *tags.toTypedArray(), viewType)
+      }
+    }
+    createView.addStatement("else -> delegate?.onCreateView(parent, name, context, attrs)")
+        .endControlFlow()
+
+    return TypeSpec.classBuilder(factoryName)
+        .addSuperinterface(KotlinTypeNames.Android.LayoutInflaterFactory2)
+        .primaryConstructor(FunSpec.constructorBuilder()
+            .addAnnotation(JvmOverloads::class)
+            .addParameter(ParameterSpec.builder("delegate", delegateType)
+                .defaultValue("null")
+                .build())
+            .build())
+        .addProperty(PropertySpec.builder("delegate", delegateType, KModifier.PRIVATE)
+            .initializer("delegate")
+            .build())
+        .addFunction(FunSpec.builder("onCreateView")
+            .addModifiers(KModifier.OVERRIDE)
+            .returns(nullableView)
+            .addParameter("parent", nullableView)
+            .addParameter("name", String::class.asClassName())
+            .addParameter("context", KotlinTypeNames.Android.Context)
+            .addParameter("attrs", KotlinTypeNames.Android.AttributeSet)
+            .addCode(createView.build())
+            .build())
+        .addFunction(FunSpec.builder("onCreateView")
+            .addModifiers(KModifier.OVERRIDE)
+            .returns(nullableView)
+            .addParameter("name", String::class.asClassName())
+            .addParameter("context", KotlinTypeNames.Android.Context)
+            .addParameter("attrs", KotlinTypeNames.Android.AttributeSet)
+            .addStatement("return onCreateView(null, name, context, attrs)")
+            .build())
+  }
+
   fun AliasTypeNames.Rx.Companion.ExtensionFunctionAlias.toClassName(): ClassName {
     return ClassName(this.className.packageName, this.methodName)
   }
 
-  override fun generateTypeSpecFor(stencil: KotlinViewStencil, rPackageName: String, traitMap: Map<Class<out KotlinTrait>, KotlinTrait>, superinterfaceClassName: String?): TypeSpec.Builder {
+  override fun typeNameOf(fileSpec: FileSpec): String {
+    return fileSpec.name
+  }
+
+  override fun methodsOf(fileSpec: FileSpec): List<Pair<String, String>> {
+    return fileSpec.members
+        .filterIsInstance<TypeSpec>()
+        .flatMap { it.funSpecs }
+        .map { it.name to it.body.toString() }
+  }
+
+  override fun generateTypeSpecFor(
+      stencil: KotlinViewStencil,
+      rPackageName: String,
+      traitMap: Map<Class<out KotlinTrait>, KotlinTrait>,
+      superinterfaceClassName: String?,
+      profiler: GenerationProfiler,
+      memberCache: TraitMemberCache): TypeSpec.Builder {
     val rClass = ClassName(rPackageName, "R")
     val typeBuilder = TypeSpec.classBuilder(stencil.name())
         .addModifiers(KModifier.OPEN)
@@ -68,18 +159,63 @@ class KotlinArtistCodeGenerator : ArtistCodeGenerator<FileSpec, TypeSpec.Builder
 
     superinterfaceClassName?.let { typeBuilder.addSuperinterface(superinterface(superinterfaceClassName)) }
 
-    generateConstructorsFor(stencil, typeBuilder, rClass)
-    val initMethod = createInitBuilderFor(stencil, typeBuilder)
+    profiler.time(stencil.name(), GenerationProfiler.PHASE_CONSTRUCTORS) {
+      generateConstructorsFor(stencil, typeBuilder, rClass)
+    }
+    val initMethod = profiler.time(stencil.name(), GenerationProfiler.PHASE_INIT_METHOD) {
+      createInitBuilderFor(stencil, typeBuilder)
+    }
 
-    stencil.traits()
-        .map { traitName -> traitMap[traitName] }
-        .forEach { it?.generateFor(typeBuilder, initMethod, rClass, stencil.name()) }
+    generateTraitsFor(stencil, traitMap, typeBuilder, initMethod, rClass, profiler, memberCache)
+    generateAttrsFor(stencil, traitMap, typeBuilder, initMethod, rClass, profiler)
 
     typeBuilder.addFunction(initMethod.build())
-    stencil.typeHook(typeBuilder)
+    profiler.time(stencil.name(), GenerationProfiler.PHASE_TYPE_HOOK) {
+      stencil.typeHook(typeBuilder)
+    }
     return typeBuilder
   }
 
+  override fun generateAttrsReadFor(
+      type: TypeSpec.Builder,
+      initMethod: FunSpec.Builder,
+      rClass: ClassName,
+      attrs: Set<ViewAttr>,
+      attrsCode: List<CodeBlock>) {
+    // android.R is always written out, as an import would shadow the app's R class.
+    val attrReference = { attr: ViewAttr ->
+      if (attr.android) {
+        CodeBlock.of("android.R.attr.%L", attr.name)
+      } else {
+        CodeBlock.of("%T.%L", rClass.nestedClass("attr"), attr.name)
+      }
+    }
+    // R.attr values are only known at runtime, so the array is sorted and the indices looked up once per class.
+    val companion = TypeSpec.companionObjectBuilder()
+        .addModifiers(KModifier.PRIVATE)
+        .addProperty(PropertySpec.builder(ATTRS_PROPERTY, IntArray::class.asClassName())
+            .initializer(CodeBlock.builder()
+                .add("intArrayOf(")
+                .apply {
+                  attrs.forEachIndexed { index, attr ->
+                    add(if (index == 0) "%L" else ", %L", attrReference(attr))
+                  }
+                }
+                .add(").apply { sort() }")
+                .build())
+            .build())
+    attrs.forEach { attr ->
+      companion.addProperty(PropertySpec.builder(attr.indexName, INT)
+          .initializer("%L.binarySearch(%L)", ATTRS_PROPERTY, attrReference(attr))
+          .build())
+    }
+    type.addType(companion.build())
+
+    initMethod.addStatement("val a = context.obtainStyledAttributes(attrs, %L)", ATTRS_PROPERTY)
+    attrsCode.forEach { initMethod.addCode(it) }
+    initMethod.addStatement("a.recycle()")
+  }
+
   override fun createInitBuilderFor(stencil: KotlinViewStencil, type: TypeSpec.Builder): FunSpec.Builder {
     return FunSpec.builder("init")
         .addAnnotation(KotlinTypeNames.Annotations.CallSuper)
@@ -153,11 +289,19 @@ class KotlinArtistCodeGenerator : ArtistCodeGenerator<FileSpec, TypeSpec.Builder
       className.substringAfterLast('.')
   )
 
-  override fun writeFile(fileSpec: FileSpec, outputDir: File) {
-    fileSpec.writeTo(outputDir)
+  override fun writeFile(fileSpec: FileSpec, outputDir: File, fileWriter: GeneratedFileWriter) {
+    val source = StringBuilder()
+    fileSpec.writeTo(source)
+    fileWriter.write(outputDir, fileSpec.packageName, fileSpec.name + ".kt", source)
   }
 
-  override fun writeFileWithFormatting(fileSpec: FileSpec, outputDir: File, outputType: TypeSpec.Builder, packageName: String) {
-    fileSpec.writeTo(outputDir)
+  override fun writeFileWithFormatting(
+      fileSpec: FileSpec,
+      outputDir: File,
+      outputType: TypeSpec.Builder,
+      viewPackageName: String,
+      formatterPool: FormatterPool,
+      fileWriter: GeneratedFileWriter) {
+    writeFile(fileSpec, outputDir, fileWriter)
   }
 }
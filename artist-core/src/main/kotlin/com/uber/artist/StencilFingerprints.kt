@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist
+
+import com.google.common.hash.Hasher
+import com.google.common.hash.Hashing
+import com.google.common.io.ByteStreams
+import com.google.common.io.Files
+import com.uber.artist.api.ViewStencil
+import java.io.File
+import java.nio.charset.StandardCharsets.UTF_8
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Computes a fingerprint for each [ViewStencil] that changes whenever the view generated for it could change: the
+ * generation settings, the stencil's configuration, its resolved traits and the content of the jars or class
+ * directories the stencil, trait, generator and API classes were loaded from. Hashing whole code sources rather than
+ * single classes also covers what traits delegate to, such as helpers, [com.uber.artist.api.TraitMemberCache] or a
+ * trait configuration discovered next to the stencils or traits. A configuration living in a library of its own isn't
+ * covered, so front ends that know the full classpath, like the Gradle task, drop the state when it changes.
+ */
+internal class StencilFingerprinter(generator: Class<*>, settings: List<Any?>) {
+
+  private val classHashes = ConcurrentHashMap<Class<*>, String>()
+  private val codeSourceHashes = ConcurrentHashMap<File, String>()
+  private val settingsHash: String = Hashing.sha256().newHasher()
+      .putCodeSource(generator)
+      .putCodeSource(ViewStencil::class.java)
+      .apply { settings.forEach { putField(it.toString()) } }
+      .hash()
+      .toString()
+
+  fun fingerprint(stencil: ViewStencil<*, *, *, *>, traitMap: Map<out Class<*>, *>): String {
+    return Hashing.sha256().newHasher()
+        .putField(settingsHash)
+        .putCodeSource(stencil.javaClass)
+        .putField(stencil.extendedType)
+        .putField(stencil.constructorCount.toString())
+        .putField(stencil.defaultAttrRes.toString())
+        .putField(stencil.name())
+        .apply {
+          stencil.traits().forEach { traitClass ->
+            putField(traitClass.name)
+            if (traitMap.containsKey(traitClass)) {
+              putCodeSource(traitClass)
+            } else {
+              putField("missing")
+            }
+          }
+        }
+        .hash()
+        .toString()
+  }
+
+  private fun Hasher.putField(value: String): Hasher = putString(value, UTF_8).putByte(0)
+
+  /**
+   * Puts the hash of the jar or class directory [clazz] was loaded from, falling back to the bytecode of its class
+   * hierarchy if that location isn't a local file.
+   */
+  private fun Hasher.putCodeSource(clazz: Class<*>): Hasher {
+    val location = clazz.protectionDomain?.codeSource?.location
+    val codeSource = if (location?.protocol == "file") File(location.toURI()) else null
+    if (codeSource == null || !codeSource.exists()) {
+      return putClassHierarchy(clazz)
+    }
+    return putField(codeSourceHashes.getOrPut(codeSource) { hashFiles(codeSource) })
+  }
+
+  private fun hashFiles(root: File): String {
+    val hasher = Hashing.sha256().newHasher()
+    root.walkTopDown()
+        .filter { it.isFile }
+        .sortedBy { it.invariantSeparatorsPath }
+        .forEach {
+          hasher.putField(it.relativeTo(root).invariantSeparatorsPath)
+          hasher.putField(Files.asByteSource(it).hash(Hashing.sha256()).toString())
+        }
+    return hasher.hash().toString()
+  }
+
+  private fun Hasher.putClassHierarchy(clazz: Class<*>): Hasher {
+    var current: Class<*>? = clazz
+    while (current != null && current.classLoader != null) {
+      val type: Class<*> = current
+      putField(classHashes.getOrPut(type) { hashClassFile(type) })
+      current = type.superclass
+    }
+    return this
+  }
+
+  private fun hashClassFile(clazz: Class<*>): String {
+    val resource = clazz.name.replace('.', '/') + ".class"
+    val bytes = clazz.classLoader.getResourceAsStream(resource)?.use { ByteStreams.toByteArray(it) }
+        ?: return clazz.name
+    return Hashing.sha256().hashBytes(bytes).toString()
+  }
+}
+
+/**
+ * Persists the fingerprint of every generated view, keyed by the path of the generated file relative to the output
+ * directory.
+ */
+internal class StencilFingerprintState(private val stateFile: File) {
+
+  /**
+   * @return The fingerprints of the previous generation, or null if there is no usable state.
+   */
+  fun read(): Map<String, String>? {
+    if (!stateFile.isFile) {
+      return null
+    }
+    val fingerprints = LinkedHashMap<String, String>()
+    stateFile.forEachLine(UTF_8) { line ->
+      val separator = line.lastIndexOf('=')
+      if (separator > 0) {
+        fingerprints[line.substring(0, separator)] = line.substring(separator + 1)
+      }
+    }
+    return fingerprints
+  }
+
+  fun write(fingerprints: Map<String, String>) {
+    stateFile.parentFile?.mkdirs()
+    stateFile.writeText(fingerprints.entries
+        .sortedBy { it.key }
+        .joinToString(separator = "\n", postfix = "\n") { "${it.key}=${it.value}" }, UTF_8)
+  }
+}
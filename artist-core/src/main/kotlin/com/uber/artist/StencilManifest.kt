@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist
+
+import com.google.gson.Gson
+import com.google.gson.JsonArray
+import com.google.gson.JsonElement
+import com.google.gson.JsonObject
+import com.google.gson.JsonPrimitive
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonToken
+import java.io.File
+import java.io.IOException
+import java.nio.charset.StandardCharsets.UTF_8
+
+/**
+ * Stencils and global traits declared in a JSON file rather than by a compiled stencil provider. Editing a manifest
+ * doesn't require recompiling a provider module or changing the buildscript classpath. Traits are referenced by class
+ * name and still have to be provided on the classpath. Generation fails if a manifest stencil generates the same view as
+ * a stencil provider or another manifest stencil.
+ *
+ * ```
+ * {
+ *   "globalTraits": ["com.example.MyGlobalTrait"],
+ *   "stencils": [
+ *     { "extendedType": "android.widget.ImageView" },
+ *     {
+ *       "extendedType": "android.widget.Button",
+ *       "constructorCount": 3,
+ *       "defaultAttrRes": "buttonStyle",
+ *       "addedTraits": ["com.uber.artist.traits.JavaForegroundTrait"]
+ *     }
+ *   ]
+ * }
+ * ```
+ */
+class StencilManifest(val stencils: List<Stencil>, val globalTraits: List<String>) {
+
+  /**
+   * A stencil declared in a manifest, with the same meaning and defaults as the arguments of a
+   * [com.uber.artist.api.ViewStencil].
+   */
+  class Stencil(
+      val extendedType: String,
+      val constructorCount: Int = 4,
+      val defaultAttrRes: String? = null,
+      val addedTraits: List<String> = emptyList())
+
+  companion object {
+
+    private val GSON = Gson()
+
+    /**
+     * Reads the manifest in [file].
+     *
+     * @throws IllegalArgumentException If the file isn't a valid manifest.
+     */
+    fun read(file: File): StencilManifest {
+      val json = try {
+        file.bufferedReader(UTF_8).use { reader ->
+          val jsonReader = JsonReader(reader)
+          GSON.getAdapter(JsonElement::class.java).read(jsonReader).also {
+            require(jsonReader.peek() == JsonToken.END_DOCUMENT) { "Unexpected content after the manifest" }
+          }
+        }
+      } catch (e: IOException) {
+        throw IllegalArgumentException("Invalid stencil manifest $file: ${e.message}", e)
+      } catch (e: IllegalArgumentException) {
+        throw IllegalArgumentException("Invalid stencil manifest $file: ${e.message}", e)
+      }
+      return fromJson(json, file)
+    }
+
+    private fun fromJson(json: JsonElement, file: File): StencilManifest {
+      val root = json.expectObject(file, "the manifest")
+      val stencils = root.value("stencils").expectArray(file, "stencils").mapIndexed { index, element ->
+        val stencil = element.expectObject(file, "stencils[$index]")
+        Stencil(
+            stencil.value("extendedType").expectString(file, "stencils[$index].extendedType"),
+            stencil.value("constructorCount")?.expectNumber(file, "stencils[$index].constructorCount")?.toInt() ?: 4,
+            stencil.value("defaultAttrRes")?.expectString(file, "stencils[$index].defaultAttrRes"),
+            stencil.value("addedTraits")?.expectStrings(file, "stencils[$index].addedTraits") ?: emptyList())
+      }
+      val globalTraits = root.value("globalTraits")?.expectStrings(file, "globalTraits") ?: emptyList()
+      return StencilManifest(stencils, globalTraits)
+    }
+
+    /**
+     * The value of [name], where an explicit `null` counts as missing.
+     */
+    private fun JsonObject.value(name: String): JsonElement? = get(name)?.takeUnless { it.isJsonNull }
+
+    private fun JsonElement?.expectObject(file: File, name: String): JsonObject {
+      require(this is JsonObject) { "Invalid stencil manifest $file: $name must be an object" }
+      return this
+    }
+
+    private fun JsonElement?.expectArray(file: File, name: String): JsonArray {
+      require(this is JsonArray) { "Invalid stencil manifest $file: $name must be an array" }
+      return this
+    }
+
+    private fun JsonElement?.expectString(file: File, name: String): String {
+      require(this is JsonPrimitive && isString) { "Invalid stencil manifest $file: $name must be a string" }
+      return asString
+    }
+
+    private fun JsonElement?.expectNumber(file: File, name: String): Number {
+      require(this is JsonPrimitive && isNumber) { "Invalid stencil manifest $file: $name must be a number" }
+      return asNumber
+    }
+
+    private fun JsonElement.expectStrings(file: File, name: String): List<String> {
+      return expectArray(file, name).mapIndexed { index, element -> element.expectString(file, "$name[$index]") }
+    }
+  }
+}
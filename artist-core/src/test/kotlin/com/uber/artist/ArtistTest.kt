@@ -7,11 +7,22 @@ import com.google.common.truth.Truth.assertWithMessage
 import com.google.testing.compile.JavaFileObjects.forSourceString
 import com.google.testing.compile.JavaSourceSubjectFactory.javaSource
 import com.squareup.javapoet.ClassName
+import com.squareup.javapoet.CodeBlock
 import com.squareup.javapoet.MethodSpec
 import com.squareup.javapoet.TypeSpec
+import com.uber.artist.api.ArtistServiceRegistry
+import com.uber.artist.api.FinishingTrait
+import com.uber.artist.api.HotMethodsTrait
+import com.uber.artist.api.JavaAttrsTrait
 import com.uber.artist.api.JavaTrait
 import com.uber.artist.api.JavaViewStencil
+import com.uber.artist.api.SupportTypesTrait
+import com.uber.artist.api.TraitMemberCache
+import com.uber.artist.api.ViewAttr
+import org.junit.Assert.fail
 import org.junit.Test
+import java.io.File
+import java.net.URLClassLoader
 import javax.lang.model.element.Modifier
 
 class ArtistTest {
@@ -176,6 +187,412 @@ public class MyImageView extends ImageView {
                 .isEqualTo(IMAGE_VIEW_WITH_TEST_TRAIT)
     }
 
+    @Test
+    fun testArtist_withParallelism_shouldGenerateSameSourceAsSequential() {
+        val sequentialOutputDir = Files.createTempDir()
+        val parallelOutputDir = Files.createTempDir()
+        val stencilTypes = listOf("android.widget.Button", "android.widget.ImageView", "android.widget.TextView")
+
+        JavaArtistCodeGenerator().generateViewsForStencils(
+                stencilTypes.map { JavaViewStencil(it, 3) }.toSet(), TRAITS, setOf(TestTrait::class.java),
+                sequentialOutputDir, TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", true)
+        val result = JavaArtistCodeGenerator().generateViewsForStencils(
+                stencilTypes.map { JavaViewStencil(it, 3) }.toSet(), TRAITS, setOf(TestTrait::class.java),
+                parallelOutputDir, TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", true, parallelism = 3)
+        assertThat(result.formattingTimes.keys).containsExactly("MyButton.java", "MyImageView.java", "MyTextView.java")
+
+        val sequentialViewDir = sequentialOutputDir.resolve(TEST_PACKAGE_NAME.replace('.', '/'))
+        val parallelViewDir = parallelOutputDir.resolve(TEST_PACKAGE_NAME.replace('.', '/'))
+        assertThat(parallelViewDir.list().sorted()).containsExactlyElementsIn(sequentialViewDir.list().sorted()).inOrder()
+        sequentialViewDir.listFiles().forEach {
+            assertWithMessage("${it.name} differs when generated in parallel")
+                    .that(parallelViewDir.resolve(it.name).readText())
+                    .isEqualTo(it.readText())
+        }
+    }
+
+    @Test
+    fun testArtist_withStateFile_shouldOnlyRegenerateChangedStencils() {
+        val outputDir = Files.createTempDir()
+        val stateFile = Files.createTempDir().resolve("state.txt")
+        val viewOutputDir = outputDir.resolve(TEST_PACKAGE_NAME.replace('.', '/'))
+
+        JavaArtistCodeGenerator().generateViewsForStencils(
+                setOf(JavaViewStencil("android.widget.Button", 3), JavaViewStencil("android.widget.ImageView", 3)),
+                TRAITS, emptySet(), outputDir, TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", true, stateFile = stateFile)
+        viewOutputDir.listFiles().forEach { it.setLastModified(1000L) }
+
+        JavaArtistCodeGenerator().generateViewsForStencils(
+                setOf(JavaViewStencil("android.widget.ImageView", 3, addedTraits = *arrayOf(TestTrait::class.java)),
+                        JavaViewStencil("android.widget.TextView", 3)),
+                TRAITS, emptySet(), outputDir, TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", true, stateFile = stateFile)
+        assertThat(viewOutputDir.list().toList()).containsExactly("MyImageView.java", "MyTextView.java")
+        assertThat(viewOutputDir.resolve("MyImageView.java").readText()).isEqualTo(IMAGE_VIEW_WITH_TEST_TRAIT)
+        viewOutputDir.listFiles().forEach { it.setLastModified(1000L) }
+
+        JavaArtistCodeGenerator().generateViewsForStencils(
+                setOf(JavaViewStencil("android.widget.ImageView", 3, addedTraits = *arrayOf(TestTrait::class.java)),
+                        JavaViewStencil("android.widget.TextView", 3)),
+                TRAITS, emptySet(), outputDir, TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", true, stateFile = stateFile)
+        viewOutputDir.listFiles().forEach {
+            assertWithMessage("${it.name} was regenerated without changes").that(it.lastModified()).isEqualTo(1000L)
+        }
+    }
+
+    @Test
+    fun testArtist_withoutPreviousState_shouldOnlyDeleteFilesInOwnedOutputDir() {
+        val outputDir = Files.createTempDir()
+        val viewOutputDir = outputDir.resolve(TEST_PACKAGE_NAME.replace('.', '/')).apply { mkdirs() }
+        viewOutputDir.resolve("Other.java").writeText("class Other {}")
+        val stencils = setOf(JavaViewStencil("android.widget.ImageView", 3))
+
+        JavaArtistCodeGenerator().generateViewsForStencils(stencils, TRAITS, emptySet(), outputDir, TEST_PACKAGE_NAME,
+                TEST_PACKAGE_NAME, null, "My", true, stateFile = Files.createTempDir().resolve("state.txt"))
+        assertThat(viewOutputDir.list().toList()).containsExactly("MyImageView.java", "Other.java")
+
+        JavaArtistCodeGenerator().generateViewsForStencils(stencils, TRAITS, emptySet(), outputDir, TEST_PACKAGE_NAME,
+                TEST_PACKAGE_NAME, null, "My", true, stateFile = Files.createTempDir().resolve("state.txt"),
+                ownsOutputDir = true)
+        assertThat(viewOutputDir.list().toList()).containsExactly("MyImageView.java")
+    }
+
+    @Test
+    fun testArtist_withUnchangedContent_shouldNotRewriteFiles() {
+        val outputDir = Files.createTempDir()
+        val viewOutputDir = outputDir.resolve(TEST_PACKAGE_NAME.replace('.', '/'))
+        val stencilTypes = listOf("android.widget.Button", "android.widget.ImageView", "android.widget.TextView")
+
+        val firstResult = JavaArtistCodeGenerator().generateViewsForStencils(stencilTypes.map { JavaViewStencil(it, 3) }.toSet(),
+                TRAITS, emptySet(), outputDir, TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", false)
+        assertThat(firstResult.writtenFiles).isEqualTo(3)
+        viewOutputDir.listFiles().forEach { it.setLastModified(1000L) }
+
+        val secondResult = JavaArtistCodeGenerator().generateViewsForStencils(stencilTypes.map { JavaViewStencil(it, 3) }.toSet(),
+                TRAITS, emptySet(), outputDir, TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", false)
+        assertThat(secondResult.writtenFiles).isEqualTo(0)
+        assertThat(secondResult.skippedFiles).isEqualTo(3)
+        viewOutputDir.listFiles().forEach {
+            assertWithMessage("${it.name} was rewritten with the same content").that(it.lastModified()).isEqualTo(1000L)
+        }
+    }
+
+    @Test
+    fun testArtist_withProfiling_shouldTimeEveryTrait() {
+        val stencils: Set<JavaViewStencil> = setOf(
+                JavaViewStencil("android.widget.ImageView", 3, addedTraits = *arrayOf(TestTrait::class.java)))
+
+        val result = JavaArtistCodeGenerator().generateViewsForStencils(stencils, TRAITS, emptySet(), Files.createTempDir(),
+                TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", true, profile = true)
+
+        assertThat(result.profile.timings().map { it.phase }).containsExactly("constructors", "initMethod",
+                "trait:TestTrait", "typeHook", "fileSpec", "output", "format").inOrder()
+        assertThat(result.profile.timings().map { it.stencil }.distinct()).containsExactly("MyImageView")
+    }
+
+    @Test
+    fun testArtist_withStencilManifest_shouldGenerateManifestStencils() {
+        val outputDir = Files.createTempDir()
+        val manifest = File(Files.createTempDir(), "stencils.json")
+        manifest.writeText("""{
+          "globalTraits": [],
+          "stencils": [
+            { "extendedType": "android.widget.ImageView", "constructorCount": 3, "addedTraits": [] }
+          ]
+        }""")
+
+        JavaArtistCodeGenerator().generateViews(outputDir, TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", true,
+                stencilManifest = manifest)
+
+        val generatedFile = outputDir.resolve(TEST_PACKAGE_NAME.replace('.', '/')).resolve("MyImageView.java")
+        assertThat(generatedFile.readText()).isEqualTo(IMAGE_VIEW_SOURCE_NO_TRAITS)
+    }
+
+    @Test
+    fun testStencilManifest_withDefaults_shouldUseStencilDefaults() {
+        val manifest = File(Files.createTempDir(), "stencils.json")
+        manifest.writeText("""{ "stencils": [{ "extendedType": "android.widget.Button", "addedTraits": ["foo.Bar"] }] }""")
+
+        val stencil = StencilManifest.read(manifest).stencils.single()
+
+        assertThat(stencil.extendedType).isEqualTo("android.widget.Button")
+        assertThat(stencil.constructorCount).isEqualTo(4)
+        assertThat(stencil.defaultAttrRes).isNull()
+        assertThat(stencil.addedTraits).containsExactly("foo.Bar")
+    }
+
+    @Test
+    fun testStencilManifest_withEscapesAndNumbers_shouldReadJsonValues() {
+        val manifest = File(Files.createTempDir(), "stencils.json")
+        manifest.writeText("""{ "stencils": [{
+          "extendedType": "android.widget.\u0042utton",
+          "constructorCount": 3e0,
+          "defaultAttrRes": "a\"b\\c\/d\te"
+        }] }""")
+
+        val stencil = StencilManifest.read(manifest).stencils.single()
+
+        assertThat(stencil.extendedType).isEqualTo("android.widget.Button")
+        assertThat(stencil.constructorCount).isEqualTo(3)
+        assertThat(stencil.defaultAttrRes).isEqualTo("a\"b\\c/d\te")
+    }
+
+    @Test
+    fun testStencilManifest_withInvalidJson_shouldFail() {
+        val manifest = File(Files.createTempDir(), "stencils.json")
+        listOf("\"a\\xb\"", "\"\\u00zz\"", "+3", "03", "3.", "[1, ]", "{ \"a\": 1 } 2").forEach { value ->
+            manifest.writeText("""{ "stencils": [], "other": $value }""")
+            try {
+                StencilManifest.read(manifest)
+                fail("Expected $value to be rejected")
+            } catch (e: IllegalArgumentException) {
+                assertThat(e).hasMessageThat().startsWith("Invalid stencil manifest")
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun testArtist_withDuplicateViewNames_shouldFail() {
+        val manifest = File(Files.createTempDir(), "stencils.json")
+        manifest.writeText("""{ "stencils": [
+          { "extendedType": "android.widget.ImageView" },
+          { "extendedType": "androidx.appcompat.widget.AppCompatImageView" }
+        ] }""")
+
+        JavaArtistCodeGenerator().generateViews(Files.createTempDir(), TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My",
+                false, stencilManifest = manifest)
+    }
+
+    @Test
+    fun testArtist_withAttrsTraits_shouldObtainAttributesOnce() {
+        val outputDir = Files.createTempDir()
+        val stencils: Set<JavaViewStencil> = setOf(JavaViewStencil("android.widget.ImageView", 3,
+                addedTraits = *arrayOf(TestAttrsTrait::class.java, OtherTestAttrsTrait::class.java)))
+
+        JavaArtistCodeGenerator().generateViewsForStencils(stencils, setOf(TestAttrsTrait(), OtherTestAttrsTrait()),
+                emptySet(), outputDir, TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", true)
+
+        val generatedViewContent = outputDir.resolve(TEST_PACKAGE_NAME.replace('.', '/'))
+                .resolve("MyImageView.java")
+                .readText()
+        assertThat(generatedViewContent.split("obtainStyledAttributes")).hasSize(2)
+        assertThat(generatedViewContent).contains("ARTIST_ATTRS = {android.R.attr.alpha, android.R.attr.tint}")
+        assertThat(generatedViewContent).contains("setAlpha(a.getFloat(ATTR_ANDROID_ALPHA, 1f));")
+        assertThat(generatedViewContent).contains("a.getColorStateList(ATTR_ANDROID_TINT);")
+    }
+
+    @Test
+    fun testAllocationLint_withAllocatingTrait_shouldReportAllocations() {
+        val stencils: Set<JavaViewStencil> = setOf(JavaViewStencil("android.widget.ImageView", 3,
+                addedTraits = *arrayOf(AllocatingTestTrait::class.java)))
+
+        val result = JavaArtistCodeGenerator().generateViewsForStencils(stencils, setOf(AllocatingTestTrait()), emptySet(),
+                Files.createTempDir(), TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", false,
+                allocationLint = AllocationLint.Mode.WARN)
+
+        assertThat(result.allocationFindings).containsExactly(
+                "MyImageView.onDraw: allocates an object: canvas.drawText(\"x\" + getWidth(), 0, 0, new android.graphics.Paint());",
+                "MyImageView.onDraw: concatenates strings: canvas.drawText(\"x\" + getWidth(), 0, 0, new android.graphics.Paint());")
+    }
+
+    @Test(expected = IllegalStateException::class)
+    fun testAllocationLint_withFailMode_shouldFailGeneration() {
+        val stencils: Set<JavaViewStencil> = setOf(JavaViewStencil("android.widget.ImageView", 3,
+                addedTraits = *arrayOf(AllocatingTestTrait::class.java)))
+
+        JavaArtistCodeGenerator().generateViewsForStencils(stencils, setOf(AllocatingTestTrait()), emptySet(),
+                Files.createTempDir(), TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", false,
+                allocationLint = AllocationLint.Mode.FAIL)
+    }
+
+    @Test
+    fun testInflaterFactory_withStencils_shouldCreateInflatableViews() {
+        val outputDir = Files.createTempDir()
+        val stencils: Set<JavaViewStencil> = setOf(JavaViewStencil("android.widget.ImageView", 3),
+                JavaViewStencil("android.view.View", 1))
+
+        JavaArtistCodeGenerator().generateViewsForStencils(stencils, emptySet(), emptySet(), outputDir, TEST_PACKAGE_NAME,
+                TEST_PACKAGE_NAME, null, "My", true, generateInflaterFactory = true)
+
+        val factoryContent = outputDir.resolve(TEST_PACKAGE_NAME.replace('.', '/'))
+                .resolve("MyLayoutInflaterFactory.java")
+                .readText()
+        assertThat(factoryContent).contains("public final class MyLayoutInflaterFactory implements LayoutInflater.Factory2")
+        assertThat(factoryContent).contains("case \"$TEST_PACKAGE_NAME.MyImageView\":")
+        assertThat(factoryContent).contains("case \"MyImageView\":")
+        assertThat(factoryContent).contains("return new MyImageView(context, attrs);")
+        assertThat(factoryContent).doesNotContain("MyView")
+    }
+
+    @Test
+    fun testInflaterFactory_withoutPrefix_shouldOnlyMatchQualifiedNames() {
+        val outputDir = Files.createTempDir()
+        val stencils: Set<JavaViewStencil> = setOf(JavaViewStencil("android.widget.ImageView", 3))
+
+        JavaArtistCodeGenerator().generateViewsForStencils(stencils, emptySet(), emptySet(), outputDir, TEST_PACKAGE_NAME,
+                TEST_PACKAGE_NAME, null, "", true, generateInflaterFactory = true)
+
+        val factoryContent = outputDir.resolve(TEST_PACKAGE_NAME.replace('.', '/'))
+                .resolve("LayoutInflaterFactory.java")
+                .readText()
+        assertThat(factoryContent).contains("case \"$TEST_PACKAGE_NAME.ImageView\":")
+        assertThat(factoryContent).doesNotContain("case \"ImageView\":")
+    }
+
+    @Test
+    fun testBaselineProfile_withHotMethodsTrait_shouldWriteRulesForHotMethods() {
+        val stencils: Set<JavaViewStencil> = setOf(JavaViewStencil("android.widget.ImageView", 3,
+                addedTraits = *arrayOf(AllocatingTestTrait::class.java, TestHotMethodsTrait::class.java)))
+        val baselineProfile = File(Files.createTempDir(), "baseline-prof.txt")
+
+        JavaArtistCodeGenerator().generateViewsForStencils(stencils, setOf(AllocatingTestTrait(), TestHotMethodsTrait()),
+                emptySet(), Files.createTempDir(), TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", false,
+                baselineProfile = baselineProfile)
+
+        val descriptor = "L${TEST_PACKAGE_NAME.replace('.', '/')}/MyImageView;"
+        assertThat(baselineProfile.readLines()).containsExactly(
+                descriptor,
+                "HSP$descriptor-><init>(**)**",
+                "HSP$descriptor->init(**)**",
+                "HSP$descriptor->onDraw(**)**",
+                "HSP$descriptor->testMethod(**)**").inOrder()
+    }
+
+    @Test
+    fun testFinishingTrait_withOtherTraits_shouldFinishAfterAllTraits() {
+        val outputDir = Files.createTempDir()
+        val stencils: Set<JavaViewStencil> = setOf(JavaViewStencil("android.widget.ImageView", 3,
+                addedTraits = *arrayOf(TestFinishingTrait::class.java, TestTrait::class.java)))
+
+        JavaArtistCodeGenerator().generateViewsForStencils(stencils, setOf(TestFinishingTrait(), TestTrait()), emptySet(),
+                outputDir, TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", true)
+
+        val generatedViewContent = outputDir.resolve(TEST_PACKAGE_NAME.replace('.', '/'))
+                .resolve("MyImageView.java")
+                .readText()
+        assertThat(generatedViewContent.indexOf("finishedMethod()"))
+                .isGreaterThan(generatedViewContent.indexOf("testMethod()"))
+    }
+
+    @Test
+    fun testSupportTypesTrait_withSeveralTraits_shouldGenerateEachSupportTypeOnce() {
+        val outputDir = Files.createTempDir()
+        val stencils: Set<JavaViewStencil> = setOf(
+                JavaViewStencil("android.widget.ImageView", 3, addedTraits = *arrayOf(TestSupportTypesTrait::class.java)),
+                JavaViewStencil("android.widget.TextView", 3, addedTraits = *arrayOf(TestSupportTypesTrait::class.java)))
+
+        JavaArtistCodeGenerator().generateViewsForStencils(stencils, setOf(TestSupportTypesTrait()), emptySet(),
+                outputDir, TEST_PACKAGE_NAME, TEST_PACKAGE_NAME, null, "My", true)
+
+        val packageDir = outputDir.resolve(TEST_PACKAGE_NAME.replace('.', '/'))
+        assertThat(packageDir.list()).asList().containsExactly("MyImageView.java", "MyTextView.java", "TestSupport.java")
+        assertThat(packageDir.resolve("TestSupport.java").readText()).contains("final class TestSupport")
+    }
+
+    @Test
+    fun testServiceRegistry_withUnchangedClasspath_shouldCreateNewInstancesOfSameServices() {
+        val servicesDir = Files.createTempDir()
+        servicesDir.resolve("META-INF/services").apply { mkdirs() }
+                .resolve(JavaTrait::class.java.name)
+                .writeText("# Test traits\n${TestTrait::class.java.name}\n")
+        val thread = Thread.currentThread()
+        val contextClassLoader = thread.contextClassLoader
+        thread.contextClassLoader = URLClassLoader(arrayOf(servicesDir.toURI().toURL()), javaClass.classLoader)
+        try {
+            val traits = ArtistServiceRegistry.load(JavaTrait::class.java)
+            ArtistServiceRegistry.refresh()
+            val reloadedTraits = ArtistServiceRegistry.load(JavaTrait::class.java)
+
+            assertThat(traits.map { it.javaClass }).containsExactly(TestTrait::class.java)
+            assertThat(reloadedTraits.map { it.javaClass }).containsExactly(TestTrait::class.java)
+            assertThat(reloadedTraits.single()).isNotSameAs(traits.single())
+        } finally {
+            thread.contextClassLoader = contextClassLoader
+        }
+    }
+
+    @Test
+    fun testTraitMemberCache_withSameKey_shouldReuseMemberWithinCache() {
+        val trait = TestTrait()
+        val cache = TraitMemberCache()
+        val first = cache.get(trait, "testMethod") { MethodSpec.methodBuilder("testMethod").build() }
+
+        assertThat(cache.get(trait, "testMethod") { MethodSpec.methodBuilder("testMethod").build() })
+                .isSameAs(first)
+        assertThat(TraitMemberCache().get(trait, "testMethod") { MethodSpec.methodBuilder("testMethod").build() })
+                .isNotSameAs(first)
+    }
+
+    @Test
+    fun testTraitMemberCache_withSameView_shouldShareViewState() {
+        val cache = TraitMemberCache()
+        val type = TypeSpec.classBuilder("MyImageView")
+        val state = cache.getViewState(type, "state") { ArrayList<String>() }
+
+        assertThat(cache.getViewState(type, "state") { ArrayList<String>() }).isSameAs(state)
+        assertThat(cache.getViewState(TypeSpec.classBuilder("MyImageView"), "state") { ArrayList<String>() })
+                .isNotSameAs(state)
+        assertThat(cache.getViewState(type, "otherState") { ArrayList<String>() }).isNotSameAs(state)
+    }
+
+    class TestAttrsTrait : JavaTrait, JavaAttrsTrait {
+        override fun generateFor(type: TypeSpec.Builder, initMethod: MethodSpec.Builder, rClass: ClassName, sourceType: String) {}
+
+        override fun attrs(sourceType: String) = setOf(ViewAttr("alpha", android = true))
+
+        override fun attrsHook(type: TypeSpec.Builder, initMethod: MethodSpec.Builder, rClass: ClassName, sourceType: String): CodeBlock {
+            return CodeBlock.of("setAlpha(a.getFloat(ATTR_ANDROID_ALPHA, 1f));\n")
+        }
+    }
+
+    class OtherTestAttrsTrait : JavaTrait, JavaAttrsTrait {
+        override fun generateFor(type: TypeSpec.Builder, initMethod: MethodSpec.Builder, rClass: ClassName, sourceType: String) {}
+
+        override fun attrs(sourceType: String) = setOf(ViewAttr("alpha", android = true), ViewAttr("tint", android = true))
+
+        override fun attrsHook(type: TypeSpec.Builder, initMethod: MethodSpec.Builder, rClass: ClassName, sourceType: String): CodeBlock {
+            return CodeBlock.of("a.getColorStateList(ATTR_ANDROID_TINT);\n")
+        }
+    }
+
+    class AllocatingTestTrait : JavaTrait {
+        override fun generateFor(type: TypeSpec.Builder, initMethod: MethodSpec.Builder, rClass: ClassName, sourceType: String) {
+            type.addMethod(MethodSpec.methodBuilder("onDraw")
+                    .addModifiers(Modifier.PROTECTED)
+                    .addParameter(ClassName.get("android.graphics", "Canvas"), "canvas")
+                    .addStatement("canvas.drawText(\$S + getWidth(), 0, 0, new \$T())", "x",
+                            ClassName.get("android.graphics", "Paint"))
+                    .build())
+            type.addMethod(MethodSpec.methodBuilder("toString")
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(String::class.java)
+                    .addStatement("return \$S + getId()", "view ")
+                    .build())
+        }
+    }
+
+    class TestHotMethodsTrait : JavaTrait, HotMethodsTrait {
+        override fun generateFor(type: TypeSpec.Builder, initMethod: MethodSpec.Builder, rClass: ClassName, sourceType: String) {
+            type.addMethod(MethodSpec.methodBuilder("testMethod").build())
+        }
+
+        override fun hotMethods(sourceType: String) = setOf("testMethod")
+    }
+
+    class TestFinishingTrait : JavaTrait, FinishingTrait<TypeSpec.Builder, MethodSpec.Builder, ClassName> {
+        override fun generateFor(type: TypeSpec.Builder, initMethod: MethodSpec.Builder, rClass: ClassName, sourceType: String) {}
+
+        override fun finishFor(type: TypeSpec.Builder, initMethod: MethodSpec.Builder, rClass: ClassName, sourceType: String,
+                memberCache: TraitMemberCache) {
+            type.addMethod(MethodSpec.methodBuilder("finishedMethod").build())
+        }
+    }
+
+    class TestSupportTypesTrait : JavaTrait, SupportTypesTrait<TypeSpec.Builder> {
+        override fun generateFor(type: TypeSpec.Builder, initMethod: MethodSpec.Builder, rClass: ClassName, sourceType: String) {}
+
+        override fun supportTypes() = listOf(TypeSpec.classBuilder("TestSupport").addModifiers(Modifier.FINAL))
+    }
+
     class TestTrait : JavaTrait {
         override fun generateFor(type: TypeSpec.Builder, initMethod: MethodSpec.Builder, rClass: ClassName, sourceType: String) {
             type.addMethod(MethodSpec.methodBuilder("testMethod")
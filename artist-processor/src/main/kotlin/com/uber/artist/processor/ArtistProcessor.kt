@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.processor
+
+import com.uber.artist.api.GenerateViews
+import com.uber.artist.generateViewsFor
+import java.io.File
+import javax.annotation.processing.AbstractProcessor
+import javax.annotation.processing.RoundEnvironment
+import javax.lang.model.SourceVersion
+import javax.lang.model.element.Element
+import javax.lang.model.element.TypeElement
+import javax.tools.Diagnostic
+
+/**
+ * Generates Artist's views for every class annotated with [GenerateViews], using the stencil providers and traits found
+ * on the annotation processor path.
+ *
+ * Each generated view is created through the [javax.annotation.processing.Filer] with the annotated class as its only
+ * originating element, which makes this an isolating processor for Gradle's incremental annotation processing.
+ */
+class ArtistProcessor : AbstractProcessor() {
+
+  override fun getSupportedAnnotationTypes(): Set<String> = setOf(GenerateViews::class.java.canonicalName)
+
+  override fun getSupportedSourceVersion(): SourceVersion = SourceVersion.latestSupported()
+
+  override fun process(annotations: Set<TypeElement>, roundEnv: RoundEnvironment): Boolean {
+    roundEnv.getElementsAnnotatedWith(GenerateViews::class.java).forEach { element ->
+      try {
+        generateViewsFor(element)
+      } catch (e: Exception) {
+        processingEnv.messager.printMessage(Diagnostic.Kind.ERROR,
+            "Artist failed to generate views: ${e.message ?: e.javaClass.name}", element)
+      }
+    }
+    return true
+  }
+
+  private fun generateViewsFor(element: Element) {
+    val annotation = element.getAnnotation(GenerateViews::class.java)
+    val packageName = annotation.packageName.ifEmpty {
+      processingEnv.elementUtils.getPackageOf(element).qualifiedName.toString()
+    }
+
+    // Stencils and traits are found through ServiceLoader, which looks them up in the context class loader.
+    val thread = Thread.currentThread()
+    val contextClassLoader = thread.contextClassLoader
+    thread.contextClassLoader = ArtistProcessor::class.java.classLoader
+    try {
+      generateViewsFor(
+          // Not used, every file is written through the Filer.
+          File("."),
+          packageName,
+          annotation.rPackageName.ifEmpty { packageName },
+          annotation.superinterface.ifEmpty { null },
+          annotation.viewNamePrefix,
+          annotation.formatSource,
+          fileWriter = FilerFileWriter(processingEnv.filer, element)
+      )
+    } finally {
+      thread.contextClassLoader = contextClassLoader
+    }
+  }
+}
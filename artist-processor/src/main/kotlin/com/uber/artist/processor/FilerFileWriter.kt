@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.processor
+
+import com.uber.artist.GeneratedFileWriter
+import java.io.File
+import javax.annotation.processing.Filer
+import javax.lang.model.element.Element
+
+/**
+ * Writes generated Java views through [filer], attributing each of them to [originatingElement]. The Filer decides
+ * where the files go, so the output directory passed to [write] is ignored.
+ */
+internal class FilerFileWriter(
+    private val filer: Filer,
+    private val originatingElement: Element) : GeneratedFileWriter() {
+
+  override fun write(directory: File, packageName: String, fileName: String, content: CharSequence) {
+    val typeName = fileName.removeSuffix(".java")
+    val qualifiedName = if (packageName.isEmpty()) typeName else "$packageName.$typeName"
+    filer.createSourceFile(qualifiedName, originatingElement).openWriter().use { it.append(content) }
+    recordWritten()
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.processor
+
+import com.google.common.truth.Truth.assertThat
+import com.google.testing.compile.CompilationSubject.assertThat
+import com.google.testing.compile.Compiler.javac
+import com.google.testing.compile.JavaFileObjects.forSourceString
+import com.uber.artist.api.JavaTrait
+import com.uber.artist.api.JavaViewStencil
+import com.uber.artist.api.JavaViewStencilProvider
+import org.junit.Test
+
+class ArtistProcessorTest {
+
+    @Test
+    fun testArtistProcessor_withAnnotatedClass_shouldGenerateViews() {
+        val compilation = javac()
+                .withProcessors(ArtistProcessor())
+                .compile(forSourceString("com.uber.artist.test.Views", """
+package com.uber.artist.test;
+
+import com.uber.artist.api.GenerateViews;
+
+@GenerateViews(viewNamePrefix = "My")
+final class Views {}
+"""))
+
+        assertThat(compilation).succeeded()
+        assertThat(compilation.generatedSourceFiles().map { it.name }).containsExactly(
+                "/SOURCE_OUTPUT/com/uber/artist/test/MyButton.java",
+                "/SOURCE_OUTPUT/com/uber/artist/test/MyImageView.java")
+        assertThat(compilation.generatedSourceFile("com.uber.artist.test.MyImageView").get().getCharContent(true).toString())
+                .contains("public class MyImageView extends ImageView")
+    }
+
+    class TestViewStencilProvider : JavaViewStencilProvider {
+
+        override fun stencils() = setOf(
+                JavaViewStencil("android.widget.Button", 3),
+                JavaViewStencil("android.widget.ImageView", 3))
+
+        override fun globalTraits() = emptySet<Class<out JavaTrait>>()
+    }
+}
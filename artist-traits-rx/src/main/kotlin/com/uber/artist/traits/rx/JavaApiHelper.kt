@@ -24,7 +24,9 @@ import com.squareup.javapoet.ParameterSpec
 import com.squareup.javapoet.ParameterizedTypeName
 import com.squareup.javapoet.TypeName
 import com.squareup.javapoet.TypeSpec
+import com.uber.artist.api.TraitMemberCache
 import com.uber.artist.api.TypeNames
+import com.uber.artist.traits.rx.config.JavaArtistRxConfig
 import com.uber.artist.traits.rx.config.JavaArtistRxConfigService
 import javax.lang.model.element.Modifier
 
@@ -52,8 +54,61 @@ data class JavaAdditiveApi(
     val isUViewOverride: Boolean = false
 )
 
-private fun TypeName.irrelevantIfObject(): TypeName {
-  val artistRxConfig = JavaArtistRxConfigService.newInstance().getArtistRxConfig()
+private const val RX_STATE_VARIABLE = "rxState"
+
+/**
+ * The holder of the rx state of a generated view, see [JavaArtistRxConfig.compactRxState]. All settable rx APIs of a
+ * view keep their state in one holder, which the view creates on the first call of one of these APIs.
+ *
+ * Traits get the holder of a view from the generation's [TraitMemberCache] with [of] and pass it to
+ * [addRxBindingApiForSettable]. Once all traits of the view ran, [finishFor] adds the holder to the view, so the traits
+ * call it from [com.uber.artist.api.FinishingTrait.finishFor].
+ */
+class JavaRxState private constructor() {
+
+  internal val stateType: TypeSpec.Builder =
+      TypeSpec.classBuilder(CLASS_NAME.simpleName()).addModifiers(Modifier.STATIC, Modifier.FINAL)
+  internal var isUsed = false
+  private var isAdded = false
+
+  companion object {
+    // The holder is nested in the view, so its simple name resolves to it wherever the view's package is.
+    internal val CLASS_NAME: ClassName = ClassName.get("", "ArtistRxState")
+    internal const val FIELD = "artistRxState"
+
+    /**
+     * Gets the holder of the view built by [type].
+     */
+    fun of(type: TypeSpec.Builder, memberCache: TraitMemberCache): JavaRxState =
+        memberCache.getViewState(type, JavaRxState::class.java) { JavaRxState() }
+
+    /**
+     * Adds the holder of the view built by [type] to it, along with the field keeping it and the method lazily creating
+     * it, unless it is unused or was already added.
+     */
+    fun finishFor(type: TypeSpec.Builder, memberCache: TraitMemberCache) {
+      val rxState = of(type, memberCache)
+      if (!rxState.isUsed || rxState.isAdded) {
+        return
+      }
+      rxState.isAdded = true
+      type.addType(rxState.stateType.build())
+      type.addField(FieldSpec.builder(CLASS_NAME, FIELD, Modifier.PRIVATE)
+          .addAnnotation(TypeNames.Annotations.Nullable)
+          .build())
+      type.addMethod(MethodSpec.methodBuilder(FIELD)
+          .addModifiers(Modifier.PRIVATE)
+          .returns(CLASS_NAME)
+          .beginControlFlow("if ($FIELD == null)")
+          .addStatement("$FIELD = new \$T()", CLASS_NAME)
+          .endControlFlow()
+          .addStatement("return $FIELD")
+          .build())
+    }
+  }
+}
+
+private fun TypeName.irrelevantIfObject(artistRxConfig: JavaArtistRxConfig): TypeName {
   return if (this == TypeName.OBJECT.box()) artistRxConfig.rxBindingSignalEventTypeName() else this
 }
 
@@ -67,7 +122,7 @@ fun addRxBindingApiForAdditive(type: TypeSpec.Builder, api: JavaAdditiveApi) {
         }
       }
       .addModifiers(Modifier.PUBLIC)
-      .returns(ParameterizedTypeName.get(JavaRxTypeNames.Rx.Observable, api.observableType.irrelevantIfObject()))
+      .returns(ParameterizedTypeName.get(JavaRxTypeNames.Rx.Observable, api.observableType.irrelevantIfObject(artistRxConfig)))
       .addCode(CodeBlock.builder()
           .add("return \$T.${api.rxBindingInfo.methodName}(this)", api.rxBindingInfo.className)
           .apply {
@@ -76,7 +131,7 @@ fun addRxBindingApiForAdditive(type: TypeSpec.Builder, api: JavaAdditiveApi) {
             }
             if (api.rxBindingInfo.methodName != "attachEvents") {
               // Safe to call, otherwise it'd be a recursive stack overflow
-              artistRxConfig.processRxBindingStream(this, api.observableType.irrelevantIfObject())
+              artistRxConfig.processRxBindingStream(this, api.observableType.irrelevantIfObject(artistRxConfig))
             }
             add(";")
           }
@@ -84,32 +139,68 @@ fun addRxBindingApiForAdditive(type: TypeSpec.Builder, api: JavaAdditiveApi) {
       .build())
 }
 
-fun addRxBindingApiForSettable(type: TypeSpec.Builder, api: JavaSettableApi, isDebug: Boolean = true) {
+/**
+ * Adds the rx API described by [api], which replaces the listener of the view, to the view built by [type]. Its state
+ * is kept in [rxState] if one is given and [JavaArtistRxConfig.compactRxState] is enabled, or else in fields of the view.
+ */
+fun addRxBindingApiForSettable(
+    type: TypeSpec.Builder,
+    api: JavaSettableApi,
+    isDebug: Boolean = true,
+    rxState: JavaRxState? = null) {
   val artistRxConfig = JavaArtistRxConfigService.newInstance().getArtistRxConfig()
   val rxBindingClassName = api.rxBindingInfo.className
   val rxBindingMethod = api.rxBindingInfo.methodName
   val rxBindingMethodDoc = api.rxBindingInfo.methodDoc
-  val isInitting = "${api.rxBindingInfo.methodName}IsInitting"
-  val disposable = "${api.rxBindingInfo.methodName}Disposable"
+  val compactRxState = rxState != null && artistRxConfig.compactRxState()
+  // With a compact rx state, the fields live in the state holder and are accessed through a local variable.
+  val statePrefix = if (compactRxState) "$RX_STATE_VARIABLE." else ""
+  val isInitting = "$statePrefix${api.rxBindingInfo.methodName}IsInitting"
+  val relay = "$statePrefix$rxBindingMethod"
+  val disposable = "$statePrefix${api.rxBindingInfo.methodName}Disposable"
+  val directListeners = artistRxConfig.directListeners()
+  val listener = "$statePrefix${rxBindingMethod}Listener"
+  val subscribeListener = "subscribe${rxBindingMethod.capitalize()}Listener"
+  val fieldModifiers = if (compactRxState) emptyArray() else arrayOf(Modifier.PRIVATE)
+  val stateType = if (rxState != null && compactRxState) {
+    rxState.isUsed = true
+    rxState.stateType
+  } else {
+    type
+  }
 
   // clicksInitting
-  type.addField(TypeName.BOOLEAN, isInitting, Modifier.PRIVATE)
+  stateType.addField(TypeName.BOOLEAN, "${rxBindingMethod}IsInitting", *fieldModifiers)
 
   // internal relay
-  type.addField(
+  stateType.addField(
       FieldSpec.builder(ParameterizedTypeName.get(if (api.isStateful) JavaRxTypeNames.Rx.BehaviorRelay else JavaRxTypeNames.Rx.PublishRelay,
-          api.observableType.irrelevantIfObject()),
+          api.observableType.irrelevantIfObject(artistRxConfig)),
           rxBindingMethod,
-          Modifier.PRIVATE)
+          *fieldModifiers)
           .addAnnotation(TypeNames.Annotations.Nullable).build())
 
-  type.addField(FieldSpec.builder(JavaRxTypeNames.Rx.Disposable, disposable, Modifier.PRIVATE).addAnnotation(TypeNames.Annotations.Nullable).build())
+  stateType.addField(FieldSpec.builder(JavaRxTypeNames.Rx.Disposable, "${rxBindingMethod}Disposable", *fieldModifiers).addAnnotation(TypeNames.Annotations.Nullable).build())
 
   val consumer = TypeSpec.anonymousClassBuilder("")
-      .addSuperinterface(ParameterizedTypeName.get(JavaRxTypeNames.Rx.Consumer, api.observableType.irrelevantIfObject()))
+      .addSuperinterface(ParameterizedTypeName.get(JavaRxTypeNames.Rx.Consumer, api.observableType.irrelevantIfObject(artistRxConfig)))
       .addMethod(api.listenerImpl.addAnnotation(Override::class.java).build())
       .build()
 
+  if (directListeners) {
+    // The listener that was set on the view directly, to move it to the relay once the rx API is called
+    stateType.addField(FieldSpec.builder(api.listenerType, "${rxBindingMethod}Listener", *fieldModifiers)
+        .addAnnotation(TypeNames.Annotations.Nullable)
+        .build())
+
+    type.addMethod(MethodSpec.methodBuilder(subscribeListener)
+        .addModifiers(Modifier.PRIVATE)
+        .returns(JavaRxTypeNames.Rx.Disposable)
+        .addParameter(ParameterSpec.builder(api.listenerType, "l", Modifier.FINAL).build())
+        .addStatement("return $rxBindingMethod().subscribe(\$L)", consumer)
+        .build())
+  }
+
   // Overridden and deprecated setOnClickListener method
   type.addMethod(MethodSpec.methodBuilder(api.listenerMethod)
       .addJavadoc(StringBuilder().apply {
@@ -128,6 +219,11 @@ fun addRxBindingApiForSettable(type: TypeSpec.Builder, api: JavaSettableApi, isD
             }
           }.build()
       )
+      .apply {
+        if (compactRxState) {
+          addStatement("\$T $RX_STATE_VARIABLE = ${JavaRxState.FIELD}()", JavaRxState.CLASS_NAME)
+        }
+      }
       .beginControlFlow("if ($isInitting)")
       .addStatement("$isInitting = false")
       .addStatement("super.${api.listenerMethod}(l)")
@@ -136,12 +232,24 @@ fun addRxBindingApiForSettable(type: TypeSpec.Builder, api: JavaSettableApi, isD
       .addStatement("$disposable.dispose()")
       .addStatement("$disposable = null")
       .endControlFlow()
-      .beginControlFlow("if (l != null)")
-      .addCode(CodeBlock.builder()
-          .add("$disposable = $rxBindingMethod()")
-          .add(".subscribe(\$L);", consumer)
-          .build())
-      .endControlFlow()
+      .apply {
+        if (directListeners) {
+          addComment("Until $rxBindingMethod() is called, listeners are set on the view itself")
+          beginControlFlow("if ($relay == null)")
+          addStatement("$listener = l")
+          addStatement("super.${api.listenerMethod}(l)")
+          nextControlFlow("else if (l != null)")
+          addStatement("$disposable = $subscribeListener(l)")
+          endControlFlow()
+        } else {
+          beginControlFlow("if (l != null)")
+          addCode(CodeBlock.builder()
+              .add("$disposable = $rxBindingMethod()")
+              .add(".subscribe(\$L);", consumer)
+              .build())
+          endControlFlow()
+        }
+      }
       .endControlFlow()
       .build())
 
@@ -153,16 +261,21 @@ fun addRxBindingApiForSettable(type: TypeSpec.Builder, api: JavaSettableApi, isD
         }
       }
       .addModifiers(Modifier.PUBLIC)
-      .returns(ParameterizedTypeName.get(JavaRxTypeNames.Rx.Observable, api.observableType.irrelevantIfObject()))
-      .beginControlFlow("if ($rxBindingMethod == null)")
+      .returns(ParameterizedTypeName.get(JavaRxTypeNames.Rx.Observable, api.observableType.irrelevantIfObject(artistRxConfig)))
+      .apply {
+        if (compactRxState) {
+          addStatement("\$T $RX_STATE_VARIABLE = ${JavaRxState.FIELD}()", JavaRxState.CLASS_NAME)
+        }
+      }
+      .beginControlFlow("if ($relay == null)")
       .addStatement("$isInitting = true")
       .apply {
         if (api.relayInitializer != null) {
-          addCode("$rxBindingMethod = ", JavaRxTypeNames.Rx.BehaviorRelay)
+          addCode("$relay = ", JavaRxTypeNames.Rx.BehaviorRelay)
           addCode(api.relayInitializer)
           addCode(";\n")
         } else {
-          addStatement("$rxBindingMethod = \$T.create()",
+          addStatement("$relay = \$T.create()",
               if (api.isStateful) JavaRxTypeNames.Rx.BehaviorRelay else JavaRxTypeNames.Rx.PublishRelay)
         }
       }
@@ -176,12 +289,21 @@ fun addRxBindingApiForSettable(type: TypeSpec.Builder, api: JavaSettableApi, isD
               artistRxConfig.processTap(this)
             }
           }
-          .addStatement("\n\t.subscribe($rxBindingMethod)")
+          .addStatement("\n\t.subscribe($relay)")
           .build())
+      .apply {
+        if (directListeners) {
+          // The rx binding replaced the listener that was set on the view, it now gets its events from the relay
+          beginControlFlow("if ($listener != null)")
+          addStatement("$disposable = $subscribeListener($listener)")
+          addStatement("$listener = null")
+          endControlFlow()
+        }
+      }
       .endControlFlow()
       .addCode(CodeBlock.builder()
-          .add("return $rxBindingMethod.hide()")
-          .apply { artistRxConfig.processRxBindingStream(this, api.observableType.irrelevantIfObject()) }
+          .add("return $relay.hide()")
+          .apply { artistRxConfig.processRxBindingStream(this, api.observableType.irrelevantIfObject(artistRxConfig)) }
           .add(";")
           .build())
       .build())
@@ -23,18 +23,43 @@ import com.squareup.javapoet.MethodSpec
 import com.squareup.javapoet.ParameterizedTypeName
 import com.squareup.javapoet.TypeName
 import com.squareup.javapoet.TypeSpec
+import com.uber.artist.api.FinishingTrait
 import com.uber.artist.api.JavaTrait
+import com.uber.artist.api.MemoizingTrait
+import com.uber.artist.api.TraitMemberCache
 import com.uber.artist.api.TypeNames
 import javax.lang.model.element.Modifier
 
 @AutoService(JavaTrait::class)
-class JavaCheckableTrait : JavaTrait {
+class JavaCheckableTrait : JavaTrait, MemoizingTrait<TypeSpec.Builder, MethodSpec.Builder, ClassName>,
+    FinishingTrait<TypeSpec.Builder, MethodSpec.Builder, ClassName> {
   override fun generateFor(
       type: TypeSpec.Builder,
       initMethod: MethodSpec.Builder,
       rClass: ClassName,
       baseType: String) {
+    generateFor(type, baseType, null)
+  }
+
+  override fun generateFor(
+      type: TypeSpec.Builder,
+      initMethod: MethodSpec.Builder,
+      rClass: ClassName,
+      baseType: String,
+      memberCache: TraitMemberCache) {
+    generateFor(type, baseType, JavaRxState.of(type, memberCache))
+  }
+
+  override fun finishFor(
+      type: TypeSpec.Builder,
+      initMethod: MethodSpec.Builder,
+      rClass: ClassName,
+      baseType: String,
+      memberCache: TraitMemberCache) {
+    JavaRxState.finishFor(type, memberCache)
+  }
 
+  private fun generateFor(type: TypeSpec.Builder, baseType: String, rxState: JavaRxState?) {
     val isTextView = baseType.endsWith("TextView")
 
     if (isTextView) {
@@ -79,7 +104,7 @@ class JavaCheckableTrait : JavaTrait {
           true,
           CodeBlock.of("\$T.createDefault(isChecked())", JavaRxTypeNames.Rx.BehaviorRelay),
           setListenerMethodAnnotations = listOf(TypeNames.Annotations.Nullable)
-      ))
+      ), rxState = rxState)
     }
   }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.traits.rx
+
+import com.squareup.javapoet.ClassName
+import com.squareup.javapoet.FieldSpec
+import com.squareup.javapoet.MethodSpec
+import com.squareup.javapoet.ParameterizedTypeName
+import com.squareup.javapoet.TypeName
+import com.squareup.javapoet.TypeSpec
+import com.uber.artist.api.TypeNames
+import javax.lang.model.element.Modifier
+
+/**
+ * Generates `ArtistFrameScrollEvent`, the event of the frame-coalesced scroll streams of scrollable views. It sums up
+ * the scroll deltas of all scroll callbacks within a frame and emits itself once per frame from a choreographer
+ * callback. A view reuses its instance for every frame, so scrolling doesn't allocate.
+ */
+internal object JavaFrameScrollEvent {
+
+  val className: ClassName = ClassName.get("", "ArtistFrameScrollEvent")
+
+  fun typeSpec(): TypeSpec.Builder {
+    val relayType = ParameterizedTypeName.get(JavaRxTypeNames.Rx.PublishRelay, className)
+    val getter = { name: String, type: TypeName, field: String ->
+      MethodSpec.methodBuilder(name)
+          .addModifiers(Modifier.PUBLIC)
+          .returns(type)
+          .addStatement("return \$N", field)
+          .build()
+    }
+
+    return TypeSpec.classBuilder(className.simpleName())
+        .addJavadoc("The scroll deltas of a view summed up over one frame.\n"
+            + "Instances are reused for every frame, so observers must not keep them.\n")
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addSuperinterface(TypeNames.Android.ChoreographerFrameCallback)
+        .addField(TypeNames.Android.View, "view", Modifier.PRIVATE, Modifier.FINAL)
+        .addField(FieldSpec.builder(relayType, "relay", Modifier.PRIVATE, Modifier.FINAL)
+            .initializer("\$T.create()", JavaRxTypeNames.Rx.PublishRelay)
+            .build())
+        .addField(TypeName.INT, "dx", Modifier.PRIVATE)
+        .addField(TypeName.INT, "dy", Modifier.PRIVATE)
+        .addField(TypeName.LONG, "frameTimeNanos", Modifier.PRIVATE)
+        .addField(TypeName.BOOLEAN, "scheduled", Modifier.PRIVATE)
+        .addMethod(MethodSpec.constructorBuilder()
+            .addParameter(TypeNames.Android.View, "view")
+            .addStatement("this.view = view")
+            .build())
+        .addMethod(getter("getView", TypeNames.Android.View, "view"))
+        .addMethod(getter("getDx", TypeName.INT, "dx"))
+        .addMethod(getter("getDy", TypeName.INT, "dy"))
+        .addMethod(getter("getFrameTimeNanos", TypeName.LONG, "frameTimeNanos"))
+        .addMethod(MethodSpec.methodBuilder("events")
+            .returns(ParameterizedTypeName.get(JavaRxTypeNames.Rx.Observable, className))
+            .addStatement("return relay.hide()")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("onScroll")
+            .addParameter(TypeName.INT, "deltaX")
+            .addParameter(TypeName.INT, "deltaY")
+            .beginControlFlow("if (!relay.hasObservers())")
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement("dx += deltaX")
+            .addStatement("dy += deltaY")
+            .beginControlFlow("if (!scheduled)")
+            .addStatement("scheduled = true")
+            .addStatement("\$T.getInstance().postFrameCallback(this)", TypeNames.Android.Choreographer)
+            .endControlFlow()
+            .build())
+        .addMethod(MethodSpec.methodBuilder("doFrame")
+            .addAnnotation(Override::class.java)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(TypeName.LONG, "frameTimeNanos")
+            .addStatement("scheduled = false")
+            .addStatement("this.frameTimeNanos = frameTimeNanos")
+            .addStatement("relay.accept(this)")
+            .addStatement("dx = 0")
+            .addStatement("dy = 0")
+            .build())
+  }
+}
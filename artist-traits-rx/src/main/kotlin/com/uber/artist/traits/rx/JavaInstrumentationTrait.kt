@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.traits.rx
+
+import com.google.auto.service.AutoService
+import com.squareup.javapoet.ClassName
+import com.squareup.javapoet.CodeBlock
+import com.squareup.javapoet.MethodSpec
+import com.squareup.javapoet.TypeName
+import com.squareup.javapoet.TypeSpec
+import com.uber.artist.api.HotMethodsTrait
+import com.uber.artist.api.JavaTrait
+import com.uber.artist.api.SupportTypesTrait
+import com.uber.artist.api.TypeNames
+import com.uber.artist.traits.rx.config.JavaArtistRxConfigService
+import javax.lang.model.element.Modifier
+
+/**
+ * Runs the code of [com.uber.artist.traits.rx.config.JavaArtistRxConfig.processImpression] and
+ * [com.uber.artist.traits.rx.config.JavaArtistRxConfig.processVisibilityChanges] from overrides of the view's attach
+ * and visibility callbacks. Unlike an rx chain per view, this neither subscribes nor allocates. Callbacks whose plugin
+ * point generates no code aren't overridden.
+ *
+ * With [com.uber.artist.traits.rx.config.JavaArtistRxConfig.uiEvents], taps, attaches and visibility changes are also
+ * recorded to the generated `ArtistUiEvents`.
+ */
+@AutoService(JavaTrait::class)
+class JavaInstrumentationTrait : JavaTrait, HotMethodsTrait, SupportTypesTrait<TypeSpec.Builder> {
+  private val artistRxConfig by lazy { JavaArtistRxConfigService.newInstance().getArtistRxConfig() }
+
+  override fun generateFor(
+      type: TypeSpec.Builder,
+      initMethod: MethodSpec.Builder,
+      rClass: ClassName,
+      sourceType: String) {
+
+    val uiEvents = artistRxConfig.uiEvents()
+    if (uiEvents) {
+      type.addMethod(MethodSpec.methodBuilder("performClick")
+          .addModifiers(Modifier.PUBLIC)
+          .addAnnotation(Override::class.java)
+          .returns(TypeName.BOOLEAN)
+          .addStatement("\$T.record(\$T.TAP, getId())", JavaUiEvents.className, JavaUiEvents.className)
+          .addStatement("return super.performClick()")
+          .build())
+    }
+
+    val impression = impression()
+    if (!impression.isEmpty) {
+      type.addMethod(MethodSpec.methodBuilder("onAttachedToWindow")
+          .addModifiers(Modifier.PROTECTED)
+          .addAnnotation(Override::class.java)
+          .addStatement("super.onAttachedToWindow()")
+          .addCode(impression)
+          .build())
+    }
+
+    val visibilityChange = visibilityChange()
+    if (!visibilityChange.isEmpty) {
+      type.addMethod(MethodSpec.methodBuilder("onVisibilityChanged")
+          .addModifiers(Modifier.PROTECTED)
+          .addAnnotation(Override::class.java)
+          .addParameter(TypeNames.Android.View, "changedView")
+          .addParameter(TypeName.INT, "visibility")
+          .addStatement("super.onVisibilityChanged(changedView, visibility)")
+          .addCode(visibilityChange)
+          .build())
+      type.addMethod(MethodSpec.methodBuilder("onWindowVisibilityChanged")
+          .addModifiers(Modifier.PROTECTED)
+          .addAnnotation(Override::class.java)
+          .addParameter(TypeName.INT, "visibility")
+          .addStatement("super.onWindowVisibilityChanged(visibility)")
+          .addCode(visibilityChange)
+          .build())
+    }
+  }
+
+  override fun hotMethods(sourceType: String) = LinkedHashSet<String>().apply {
+    if (artistRxConfig.uiEvents()) {
+      add("performClick")
+    }
+    if (!impression().isEmpty) {
+      add("onAttachedToWindow")
+    }
+    if (!visibilityChange().isEmpty) {
+      add("onVisibilityChanged")
+      add("onWindowVisibilityChanged")
+    }
+  }
+
+  override fun supportTypes(): List<TypeSpec.Builder> =
+      if (artistRxConfig.uiEvents()) listOf(JavaUiEvents.typeSpec()) else emptyList()
+
+  private fun impression() = CodeBlock.builder().apply {
+    if (artistRxConfig.uiEvents()) {
+      addStatement("\$T.record(\$T.ATTACH, getId())", JavaUiEvents.className, JavaUiEvents.className)
+    }
+    artistRxConfig.processImpression(this)
+  }.build()
+
+  private fun visibilityChange() = CodeBlock.builder().apply {
+    if (artistRxConfig.uiEvents()) {
+      addStatement("\$T.record(visibility == \$T.VISIBLE ? \$T.SHOWN : \$T.HIDDEN, getId())", JavaUiEvents.className,
+          TypeNames.Android.View, JavaUiEvents.className, JavaUiEvents.className)
+    }
+    artistRxConfig.processVisibilityChanges(this)
+  }.build()
+}
@@ -18,19 +18,50 @@ package com.uber.artist.traits.rx
 
 import com.google.auto.service.AutoService
 import com.squareup.javapoet.ClassName
+import com.squareup.javapoet.FieldSpec
 import com.squareup.javapoet.MethodSpec
+import com.squareup.javapoet.ParameterizedTypeName
+import com.squareup.javapoet.TypeName
 import com.squareup.javapoet.TypeSpec
+import com.uber.artist.api.FinishingTrait
+import com.uber.artist.api.HotMethodsTrait
 import com.uber.artist.api.JavaTrait
+import com.uber.artist.api.MemoizingTrait
+import com.uber.artist.api.SupportTypesTrait
+import com.uber.artist.api.TraitMemberCache
+import com.uber.artist.api.TypeNames
 import javax.lang.model.element.Modifier
 
 @AutoService(JavaTrait::class)
-class JavaScrollableTrait : JavaTrait {
+class JavaScrollableTrait : JavaTrait, MemoizingTrait<TypeSpec.Builder, MethodSpec.Builder, ClassName>,
+    FinishingTrait<TypeSpec.Builder, MethodSpec.Builder, ClassName>, HotMethodsTrait, SupportTypesTrait<TypeSpec.Builder> {
   override fun generateFor(
       type: TypeSpec.Builder,
       initMethod: MethodSpec.Builder,
       rClass: ClassName,
       sourceType: String) {
+    generateFor(type, sourceType, null)
+  }
+
+  override fun generateFor(
+      type: TypeSpec.Builder,
+      initMethod: MethodSpec.Builder,
+      rClass: ClassName,
+      sourceType: String,
+      memberCache: TraitMemberCache) {
+    generateFor(type, sourceType, JavaRxState.of(type, memberCache))
+  }
+
+  override fun finishFor(
+      type: TypeSpec.Builder,
+      initMethod: MethodSpec.Builder,
+      rClass: ClassName,
+      sourceType: String,
+      memberCache: TraitMemberCache) {
+    JavaRxState.finishFor(type, memberCache)
+  }
 
+  private fun generateFor(type: TypeSpec.Builder, sourceType: String, rxState: JavaRxState?) {
     // ScrollView overrides
     if (sourceType.contains("ScrollView")) {
       addRxBindingApiForSettable(type, JavaSettableApi(
@@ -46,7 +77,7 @@ class JavaScrollableTrait : JavaTrait {
               .addParameter(JavaRxTypeNames.Rx.ViewScrollChangeEvent, "event")
               .addStatement("l.onScrollChange($sourceType.this, event.getScrollX(), event" +
                   ".getScrollY" +
-                  "(), event.getOldScrollX(), event.getOldScrollY())")))
+                  "(), event.getOldScrollX(), event.getOldScrollY())")), rxState = rxState)
     }
 
     // RecyclerView overrides
@@ -57,5 +88,68 @@ class JavaScrollableTrait : JavaTrait {
               "@return an observable of scroll events on this RecyclerView"),
           JavaRxTypeNames.Rx.RecyclerViewScrollEvent))
     }
+
+    if (isScrollable(sourceType)) {
+      addFrameScrollEvents(type, sourceType)
+    }
+  }
+
+  override fun hotMethods(sourceType: String) = when {
+    isRecyclerView(sourceType) -> setOf("onScrolled")
+    isScrollable(sourceType) -> setOf("onScrollChanged")
+    else -> emptySet()
+  }
+
+  override fun supportTypes() = listOf(JavaFrameScrollEvent.typeSpec())
+
+  private fun isScrollable(sourceType: String) = sourceType.contains("ScrollView") || isRecyclerView(sourceType)
+
+  private fun isRecyclerView(sourceType: String) = sourceType.contains("RecyclerView")
+
+  /**
+   * Adds `frameScrollEvents()`, which sums up the scroll deltas within a frame and emits them at most once per frame
+   * through the reused event of the view. RecyclerViews report their deltas through `onScrolled()`, since they call
+   * `onScrollChanged()` with the same old and new scroll position. Other views use `onScrollChanged()`.
+   */
+  private fun addFrameScrollEvents(type: TypeSpec.Builder, sourceType: String) {
+    val eventType = JavaFrameScrollEvent.className
+    type.addField(FieldSpec.builder(eventType, "frameScrollEvent", Modifier.PRIVATE)
+        .addAnnotation(TypeNames.Annotations.Nullable)
+        .build())
+    type.addMethod(MethodSpec.methodBuilder("frameScrollEvents")
+        .addJavadoc("@return an observable of the scroll deltas of this view, emitting at most once per frame. The "
+            + "event is reused\nfor every frame, so observers must not keep it.\n")
+        .addModifiers(Modifier.PUBLIC)
+        .returns(ParameterizedTypeName.get(JavaRxTypeNames.Rx.Observable, eventType))
+        .beginControlFlow("if (frameScrollEvent == null)")
+        .addStatement("frameScrollEvent = new \$T(this)", eventType)
+        .endControlFlow()
+        .addStatement("return frameScrollEvent.events()")
+        .build())
+    if (isRecyclerView(sourceType)) {
+      type.addMethod(MethodSpec.methodBuilder("onScrolled")
+          .addAnnotation(Override::class.java)
+          .addModifiers(Modifier.PUBLIC)
+          .addParameter(TypeName.INT, "dx")
+          .addParameter(TypeName.INT, "dy")
+          .addStatement("super.onScrolled(dx, dy)")
+          .beginControlFlow("if (frameScrollEvent != null)")
+          .addStatement("frameScrollEvent.onScroll(dx, dy)")
+          .endControlFlow()
+          .build())
+    } else {
+      type.addMethod(MethodSpec.methodBuilder("onScrollChanged")
+          .addAnnotation(Override::class.java)
+          .addModifiers(Modifier.PROTECTED)
+          .addParameter(TypeName.INT, "l")
+          .addParameter(TypeName.INT, "t")
+          .addParameter(TypeName.INT, "oldl")
+          .addParameter(TypeName.INT, "oldt")
+          .addStatement("super.onScrollChanged(l, t, oldl, oldt)")
+          .beginControlFlow("if (frameScrollEvent != null)")
+          .addStatement("frameScrollEvent.onScroll(l - oldl, t - oldt)")
+          .endControlFlow()
+          .build())
+    }
   }
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.traits.rx
+
+import com.squareup.javapoet.ArrayTypeName
+import com.squareup.javapoet.ClassName
+import com.squareup.javapoet.CodeBlock
+import com.squareup.javapoet.FieldSpec
+import com.squareup.javapoet.MethodSpec
+import com.squareup.javapoet.ParameterSpec
+import com.squareup.javapoet.TypeName
+import com.squareup.javapoet.TypeSpec
+import com.uber.artist.api.TypeNames
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import javax.lang.model.element.Modifier
+
+/**
+ * Generates `ArtistUiEvents`, the runtime that generated views record their UI events to, see
+ * [com.uber.artist.traits.rx.config.JavaArtistRxConfig.uiEvents].
+ *
+ * Events are kept in a bounded, lock-free ring buffer of primitives that many threads can write to and a single
+ * daemon thread drains in batches to the consumer set by the app. Recording an event neither locks nor allocates. When
+ * the buffer is full, events are dropped and counted. A consumer that throws is logged and only loses the batch it was
+ * given.
+ */
+internal object JavaUiEvents {
+
+  val className: ClassName = ClassName.get("", "ArtistUiEvents")
+
+  private val consumerType = className.nestedClass("Consumer")
+
+  fun typeSpec(): TypeSpec.Builder {
+    val intArray = ArrayTypeName.of(TypeName.INT)
+    val longArray = ArrayTypeName.of(TypeName.LONG)
+    val constant = { name: String, type: TypeName, value: String ->
+      FieldSpec.builder(type, name, Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL).initializer(value).build()
+    }
+    val state = { name: String, type: TypeName, value: String ->
+      FieldSpec.builder(type, name, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).initializer(value).build()
+    }
+    val atomicLong = ClassName.get(AtomicLong::class.java)
+
+    return TypeSpec.classBuilder(className.simpleName())
+        .addJavadoc("UI events of the generated views, drained in batches to a {@link Consumer} on a background thread.\n")
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addField(constant("TAP", TypeName.INT, "1"))
+        .addField(constant("ATTACH", TypeName.INT, "2"))
+        .addField(constant("SHOWN", TypeName.INT, "3"))
+        .addField(constant("HIDDEN", TypeName.INT, "4"))
+        .addField(state("CAPACITY", TypeName.INT, "1024"))
+        .addField(state("MASK", TypeName.INT, "CAPACITY - 1"))
+        .addField(state("DRAIN_INTERVAL_MS", TypeName.LONG, "100"))
+        .addField(FieldSpec.builder(AtomicLongArray::class.java, "SEQUENCES", Modifier.PRIVATE, Modifier.STATIC,
+            Modifier.FINAL)
+            .addJavadoc("Per slot, the position it can be written at or, once written, that position + 1.\n")
+            .initializer("new \$T(CAPACITY)", AtomicLongArray::class.java)
+            .build())
+        .addField(FieldSpec.builder(longArray, "EVENTS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .addJavadoc("Per slot, the event type in the upper and the view id in the lower 32 bits.\n")
+            .initializer("new long[CAPACITY]")
+            .build())
+        .addField(state("TIMESTAMPS", longArray, "new long[CAPACITY]"))
+        .addField(FieldSpec.builder(atomicLong, "HEAD", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("new \$T()", atomicLong)
+            .build())
+        .addField(FieldSpec.builder(atomicLong, "DROPPED", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("new \$T()", atomicLong)
+            .build())
+        .addField(FieldSpec.builder(consumerType, "consumer", Modifier.PRIVATE, Modifier.STATIC, Modifier.VOLATILE)
+            .addAnnotation(TypeNames.Annotations.Nullable)
+            .build())
+        .addField(FieldSpec.builder(Thread::class.java, "drainThread", Modifier.PRIVATE, Modifier.STATIC)
+            .addAnnotation(TypeNames.Annotations.Nullable)
+            .build())
+        .addStaticBlock(CodeBlock.builder()
+            .beginControlFlow("for (int i = 0; i < CAPACITY; i++)")
+            .addStatement("SEQUENCES.set(i, i)")
+            .endControlFlow()
+            .build())
+        .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build())
+        .addType(TypeSpec.interfaceBuilder(consumerType.simpleName())
+            .addModifiers(Modifier.PUBLIC)
+            .addMethod(MethodSpec.methodBuilder("onEvents")
+                .addJavadoc("Receives a batch of events on the drain thread. The arrays are reused, only their\n"
+                    + "first {@code count} entries are valid.\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                .addParameter(intArray, "types")
+                .addParameter(intArray, "viewIds")
+                .addParameter(longArray, "timestampsNanos")
+                .addParameter(TypeName.INT, "count")
+                .build())
+            .build())
+        .addMethod(MethodSpec.methodBuilder("setConsumer")
+            .addJavadoc("Sets the consumer of events and starts the drain thread on first use.\n")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.SYNCHRONIZED)
+            .addParameter(ParameterSpec.builder(consumerType, "eventConsumer")
+                .addAnnotation(TypeNames.Annotations.Nullable)
+                .build())
+            .addStatement("consumer = eventConsumer")
+            .beginControlFlow("if (eventConsumer != null && drainThread == null)")
+            .addStatement("drainThread = new \$T(\$L, \$S)", Thread::class.java, TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(Runnable::class.java)
+                .addMethod(MethodSpec.methodBuilder("run")
+                    .addAnnotation(Override::class.java)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addStatement("drain()")
+                    .build())
+                .build(), "ArtistUiEvents")
+            .addStatement("drainThread.setDaemon(true)")
+            .addStatement("drainThread.start()")
+            .endControlFlow()
+            .build())
+        .addMethod(MethodSpec.methodBuilder("droppedEvents")
+            .addJavadoc("The number of events dropped because the buffer was full.\n")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(TypeName.LONG)
+            .addStatement("return DROPPED.get()")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("record")
+            .addJavadoc("Records an event without locking or allocating. Safe to call from any thread.\n")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addParameter(TypeName.INT, "type")
+            .addParameter(TypeName.INT, "viewId")
+            .beginControlFlow("if (consumer == null)")
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement("long timestamp = System.nanoTime()")
+            .beginControlFlow("while (true)")
+            .addStatement("long position = HEAD.get()")
+            .addStatement("int index = (int) position & MASK")
+            .addStatement("long sequence = SEQUENCES.get(index)")
+            .beginControlFlow("if (sequence == position)")
+            .beginControlFlow("if (HEAD.compareAndSet(position, position + 1))")
+            .addStatement("EVENTS[index] = ((long) type << 32) | (viewId & 0xFFFFFFFFL)")
+            .addStatement("TIMESTAMPS[index] = timestamp")
+            .addStatement("SEQUENCES.lazySet(index, position + 1)")
+            .addStatement("return")
+            .endControlFlow()
+            .nextControlFlow("else if (sequence < position)")
+            .addComment("The slot wasn't drained yet, the buffer is full")
+            .addStatement("DROPPED.incrementAndGet()")
+            .addStatement("return")
+            .endControlFlow()
+            .endControlFlow()
+            .build())
+        .addMethod(MethodSpec.methodBuilder("drain")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addStatement("int[] types = new int[CAPACITY]")
+            .addStatement("int[] viewIds = new int[CAPACITY]")
+            .addStatement("long[] timestamps = new long[CAPACITY]")
+            .addStatement("long tail = 0")
+            .beginControlFlow("while (true)")
+            .addStatement("int count = 0")
+            .beginControlFlow("while (count < CAPACITY)")
+            .addStatement("int index = (int) tail & MASK")
+            .beginControlFlow("if (SEQUENCES.get(index) != tail + 1)")
+            .addStatement("break")
+            .endControlFlow()
+            .addStatement("long event = EVENTS[index]")
+            .addStatement("types[count] = (int) (event >>> 32)")
+            .addStatement("viewIds[count] = (int) event")
+            .addStatement("timestamps[count] = TIMESTAMPS[index]")
+            .addStatement("SEQUENCES.lazySet(index, tail + CAPACITY)")
+            .addStatement("tail++")
+            .addStatement("count++")
+            .endControlFlow()
+            .addStatement("\$T eventConsumer = consumer", consumerType)
+            .beginControlFlow("if (count > 0 && eventConsumer != null)")
+            .beginControlFlow("try")
+            .addStatement("eventConsumer.onEvents(types, viewIds, timestamps, count)")
+            .nextControlFlow("catch (\$T e)", RuntimeException::class.java)
+            .addComment("Only this batch is lost, later events must still reach the consumer")
+            .addStatement("\$T.e(\$S, \$S, e)", TypeNames.Android.Log, "ArtistUiEvents", "Event consumer failed")
+            .endControlFlow()
+            .endControlFlow()
+            .beginControlFlow("if (count < CAPACITY)")
+            .beginControlFlow("try")
+            .addStatement("\$T.sleep(DRAIN_INTERVAL_MS)", Thread::class.java)
+            .nextControlFlow("catch (\$T e)", InterruptedException::class.java)
+            .addComment("Lets the next consumer start a new drain thread")
+            .beginControlFlow("synchronized (\$T.class)", className)
+            .addStatement("drainThread = null")
+            .endControlFlow()
+            .addStatement("return")
+            .endControlFlow()
+            .endControlFlow()
+            .endControlFlow()
+            .build())
+  }
+}
@@ -21,13 +21,18 @@ import com.squareup.javapoet.ClassName
 import com.squareup.javapoet.MethodSpec
 import com.squareup.javapoet.TypeName
 import com.squareup.javapoet.TypeSpec
+import com.uber.artist.api.FinishingTrait
+import com.uber.artist.api.HotMethodsTrait
 import com.uber.artist.api.JavaTrait
+import com.uber.artist.api.MemoizingTrait
+import com.uber.artist.api.TraitMemberCache
 import com.uber.artist.api.TypeNames
 import com.uber.artist.traits.rx.config.JavaArtistRxConfigService
 import javax.lang.model.element.Modifier
 
 @AutoService(JavaTrait::class)
-open class JavaViewTrait : JavaTrait {
+open class JavaViewTrait : JavaTrait, MemoizingTrait<TypeSpec.Builder, MethodSpec.Builder, ClassName>,
+    FinishingTrait<TypeSpec.Builder, MethodSpec.Builder, ClassName>, HotMethodsTrait {
   private val artistRxConfig by lazy { JavaArtistRxConfigService.newInstance().getArtistRxConfig() }
 
   override fun generateFor(
@@ -35,13 +40,38 @@ open class JavaViewTrait : JavaTrait {
       initMethod: MethodSpec.Builder,
       rClass: ClassName,
       sourceType: String) {
+    generateFor(type, sourceType, null)
+  }
+
+  override fun generateFor(
+      type: TypeSpec.Builder,
+      initMethod: MethodSpec.Builder,
+      rClass: ClassName,
+      sourceType: String,
+      memberCache: TraitMemberCache) {
+    generateFor(type, sourceType, JavaRxState.of(type, memberCache))
+  }
 
-    clicks(type, sourceType)
-    longClicks(type, sourceType)
+  override fun finishFor(
+      type: TypeSpec.Builder,
+      initMethod: MethodSpec.Builder,
+      rClass: ClassName,
+      sourceType: String,
+      memberCache: TraitMemberCache) {
+    JavaRxState.finishFor(type, memberCache)
+  }
+
+  private fun generateFor(type: TypeSpec.Builder, sourceType: String, rxState: JavaRxState?) {
+    clicks(type, sourceType, rxState)
+    longClicks(type, sourceType, rxState)
     layoutChanges(type)
   }
 
-  open fun clicks(type: TypeSpec.Builder, sourceType: String) {
+  // Screens usually subscribe to these while they start.
+  override fun hotMethods(sourceType: String) =
+      setOf("clicks", "longClicks", "layoutChanges", "setOnClickListener", "setOnLongClickListener")
+
+  open fun clicks(type: TypeSpec.Builder, sourceType: String, rxState: JavaRxState? = null) {
     addRxBindingApiForSettable(type, JavaSettableApi(
         JavaRxBindingInfo(JavaRxTypeNames.Rx.RxView,
             "clicks",
@@ -55,10 +85,10 @@ open class JavaViewTrait : JavaTrait {
             .addParameter(artistRxConfig.rxBindingSignalEventTypeName(), "ignored")
             .addStatement("l.onClick($sourceType.this)"),
         setListenerMethodAnnotations = listOf(TypeNames.Annotations.Nullable)
-    ))
+    ), rxState = rxState)
   }
 
-  open fun longClicks(type: TypeSpec.Builder, sourceType: String) {
+  open fun longClicks(type: TypeSpec.Builder, sourceType: String, rxState: JavaRxState? = null) {
     addRxBindingApiForSettable(type, JavaSettableApi(
         JavaRxBindingInfo(JavaRxTypeNames.Rx.RxView,
             "longClicks",
@@ -72,7 +102,7 @@ open class JavaViewTrait : JavaTrait {
             .addParameter(artistRxConfig.rxBindingSignalEventTypeName(), "ignored")
             .addStatement("l.onLongClick($sourceType.this)"),
         setListenerMethodAnnotations = listOf(TypeNames.Annotations.Nullable)
-    ))
+    ), rxState = rxState)
   }
 
   open fun layoutChanges(type: TypeSpec.Builder) {
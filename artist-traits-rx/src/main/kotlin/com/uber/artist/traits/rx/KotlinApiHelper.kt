@@ -30,6 +30,8 @@ import com.squareup.kotlinpoet.TypeName
 import com.squareup.kotlinpoet.TypeSpec
 import com.squareup.kotlinpoet.asClassName
 import com.uber.artist.api.KotlinTypeNames
+import com.uber.artist.api.TraitMemberCache
+import com.uber.artist.traits.rx.config.KotlinArtistRxConfig
 import com.uber.artist.traits.rx.config.KotlinArtistRxConfigService
 
 data class KotlinRxBindingInfo(
@@ -72,8 +74,58 @@ data class KotlinAdditiveApi(
     val isUViewOverride: Boolean = false
 )
 
-private fun TypeName.irrelevantIfObject(): TypeName {
-  val artistRxConfig = KotlinArtistRxConfigService.newInstance().getArtistRxConfig()
+private const val RX_STATE_VARIABLE = "rxState"
+
+/**
+ * The holder of the rx state of a generated view, see [KotlinArtistRxConfig.compactRxState]. All settable rx APIs of a
+ * view keep their state in one holder, which the view creates on the first call of one of these APIs.
+ *
+ * Traits get the holder of a view from the generation's [TraitMemberCache] with [of] and pass it to
+ * [addRxBindingApiForSettable]. Once all traits of the view ran, [finishFor] adds the holder to the view, so the traits
+ * call it from [com.uber.artist.api.FinishingTrait.finishFor].
+ */
+class KotlinRxState private constructor() {
+
+  internal val stateType: TypeSpec.Builder = TypeSpec.classBuilder(CLASS_NAME).addModifiers(KModifier.PRIVATE)
+  internal var isUsed = false
+  private var isAdded = false
+
+  companion object {
+    // The holder is nested in the view, so its simple name resolves to it wherever the view's package is.
+    internal val CLASS_NAME = ClassName("", "ArtistRxState")
+    internal const val PROPERTY = "artistRxState"
+
+    /**
+     * Gets the holder of the view built by [type].
+     */
+    fun of(type: TypeSpec.Builder, memberCache: TraitMemberCache): KotlinRxState =
+        memberCache.getViewState(type, KotlinRxState::class.java) { KotlinRxState() }
+
+    /**
+     * Adds the holder of the view built by [type] to it, along with the property keeping it and the function lazily
+     * creating it, unless it is unused or was already added.
+     */
+    fun finishFor(type: TypeSpec.Builder, memberCache: TraitMemberCache) {
+      val rxState = of(type, memberCache)
+      if (!rxState.isUsed || rxState.isAdded) {
+        return
+      }
+      rxState.isAdded = true
+      type.addType(rxState.stateType.build())
+      type.addProperty(PropertySpec.builder(PROPERTY, CLASS_NAME.copy(nullable = true), KModifier.PRIVATE)
+          .mutable()
+          .initializer("null")
+          .build())
+      type.addFunction(FunSpec.builder(PROPERTY)
+          .addModifiers(KModifier.PRIVATE)
+          .returns(CLASS_NAME)
+          .addStatement("return $PROPERTY ?: %T().also { $PROPERTY = it }", CLASS_NAME)
+          .build())
+    }
+  }
+}
+
+private fun TypeName.irrelevantIfObject(artistRxConfig: KotlinArtistRxConfig): TypeName {
   return if (this == KotlinTypeNames.Java.Object) artistRxConfig.rxBindingSignalEventTypeName() else this
 }
 
@@ -88,7 +140,7 @@ fun addRxBindingApiForAdditive(type: TypeSpec.Builder, api: KotlinAdditiveApi) {
         }
       }
       .addModifiers(KModifier.OPEN)
-      .returns(KotlinRxTypeNames.Rx.Observable.parameterizedBy(api.observableType.irrelevantIfObject()))
+      .returns(KotlinRxTypeNames.Rx.Observable.parameterizedBy(api.observableType.irrelevantIfObject(artistRxConfig)))
       .addCode(CodeBlock.builder()
           .apply {
             if (rx_alias != null) {
@@ -103,7 +155,7 @@ fun addRxBindingApiForAdditive(type: TypeSpec.Builder, api: KotlinAdditiveApi) {
             }
             if (api.rxBindingInfo.methodName != "attachEvents") {
               // Safe to call, otherwise it'd be a recursive stack overflow
-              artistRxConfig.processRxBindingStream(this, api.observableType.irrelevantIfObject())
+              artistRxConfig.processRxBindingStream(this, api.observableType.irrelevantIfObject(artistRxConfig))
             }
           }
           .add("\n")
@@ -111,41 +163,79 @@ fun addRxBindingApiForAdditive(type: TypeSpec.Builder, api: KotlinAdditiveApi) {
       .build())
 }
 
-fun addRxBindingApiForSettable(type: TypeSpec.Builder, api: KotlinSettableApi, isDebug: Boolean = true) {
+/**
+ * Adds the rx API described by [api], which replaces the listener of the view, to the view built by [type]. Its state
+ * is kept in [rxState] if one is given and [KotlinArtistRxConfig.compactRxState] is enabled, or else in properties of
+ * the view.
+ */
+fun addRxBindingApiForSettable(
+    type: TypeSpec.Builder,
+    api: KotlinSettableApi,
+    isDebug: Boolean = true,
+    rxState: KotlinRxState? = null) {
   val artistRxConfig = KotlinArtistRxConfigService.newInstance().getArtistRxConfig()
   val rxBindingClassName = api.rxBindingInfo.className
   val rxBindingMethod = api.rxBindingInfo.methodName
   val rxBindingMethodDoc = api.rxBindingInfo.methodDoc
-  val isInitting = "${api.rxBindingInfo.methodName}IsInitting"
-  val disposable = "${api.rxBindingInfo.methodName}Disposable"
+  val compactRxState = rxState != null && artistRxConfig.compactRxState()
+  // With a compact rx state, the properties live in the state holder and are accessed through a local variable.
+  val statePrefix = if (compactRxState) "$RX_STATE_VARIABLE." else ""
+  val isInitting = "$statePrefix${api.rxBindingInfo.methodName}IsInitting"
+  val relay = "$statePrefix$rxBindingMethod"
+  val disposable = "$statePrefix${api.rxBindingInfo.methodName}Disposable"
+  val directListeners = artistRxConfig.directListeners()
+  val listener = "$statePrefix${rxBindingMethod}Listener"
+  val subscribeListener = "subscribe${rxBindingMethod.capitalize()}Listener"
+  val propertyModifiers = if (compactRxState) emptyArray() else arrayOf(KModifier.PRIVATE)
+  val stateType = if (rxState != null && compactRxState) {
+    rxState.isUsed = true
+    rxState.stateType
+  } else {
+    type
+  }
 
   val rx_alias = api.rxBindingInfo.getRxAlias()
 
   // clicksInitting
-  type.addProperty(PropertySpec.builder(isInitting, BOOLEAN, KModifier.PRIVATE)
+  stateType.addProperty(PropertySpec.builder("${rxBindingMethod}IsInitting", BOOLEAN, *propertyModifiers)
       .mutable()
       .initializer("false")
       .build())
 
   // internal relay
   val internalRelayTypeName = if (api.isStateful) KotlinRxTypeNames.Rx.BehaviorRelay else KotlinRxTypeNames.Rx.PublishRelay
-  type.addProperty(
-      PropertySpec.builder(rxBindingMethod, internalRelayTypeName.parameterizedBy(api.observableType.irrelevantIfObject()).copy(nullable = true),
-          KModifier.PRIVATE)
+  stateType.addProperty(
+      PropertySpec.builder(rxBindingMethod, internalRelayTypeName.parameterizedBy(api.observableType.irrelevantIfObject(artistRxConfig)).copy(nullable = true),
+          *propertyModifiers)
           .mutable()
           .initializer("null")
           .build())
 
-  type.addProperty(PropertySpec.builder(disposable, KotlinRxTypeNames.Rx.Disposable.copy(nullable = true), KModifier.PRIVATE)
+  stateType.addProperty(PropertySpec.builder("${rxBindingMethod}Disposable", KotlinRxTypeNames.Rx.Disposable.copy(nullable = true), *propertyModifiers)
       .mutable()
       .initializer("null")
       .build())
 
   val consumer = TypeSpec.anonymousClassBuilder()
-      .addSuperinterface(KotlinRxTypeNames.Rx.Consumer.parameterizedBy(api.observableType.irrelevantIfObject()))
+      .addSuperinterface(KotlinRxTypeNames.Rx.Consumer.parameterizedBy(api.observableType.irrelevantIfObject(artistRxConfig)))
       .addFunction(api.listenerImpl.addModifiers(KModifier.OVERRIDE).build())
       .build()
 
+  if (directListeners) {
+    // The listener that was set on the view directly, to move it to the relay once the rx API is called
+    stateType.addProperty(PropertySpec.builder("${rxBindingMethod}Listener", api.listenerType.copy(nullable = true), *propertyModifiers)
+        .mutable()
+        .initializer("null")
+        .build())
+
+    type.addFunction(FunSpec.builder(subscribeListener)
+        .addModifiers(KModifier.PRIVATE)
+        .returns(KotlinRxTypeNames.Rx.Disposable)
+        .addParameter("l", api.listenerType)
+        .addStatement("return $rxBindingMethod().subscribe($consumer)")
+        .build())
+  }
+
   // Overridden and deprecated setOnClickListener method
   type.addFunction(FunSpec.builder(api.listenerMethod)
       .addKdoc(StringBuilder().apply {
@@ -167,18 +257,35 @@ fun addRxBindingApiForSettable(type: TypeSpec.Builder, api: KotlinSettableApi, i
             }
           }.build()
       )
+      .apply {
+        if (compactRxState) {
+          addStatement("val $RX_STATE_VARIABLE = ${KotlinRxState.PROPERTY}()")
+        }
+      }
       .beginControlFlow("if ($isInitting)")
       .addStatement("$isInitting = false")
       .addStatement("super.${api.listenerMethod}(l)")
       .nextControlFlow("else")
       .addStatement("$disposable?.dispose()")
       .addStatement("$disposable = null")
-      .beginControlFlow("if (l != null)")
-      .addCode(CodeBlock.builder()
-          .add("$disposable = $rxBindingMethod()")
-          .add(".subscribe($consumer)\n")
-          .build())
-      .endControlFlow()
+      .apply {
+        if (directListeners) {
+          addComment("Until $rxBindingMethod() is called, listeners are set on the view itself")
+          beginControlFlow("if ($relay == null)")
+          addStatement("$listener = l")
+          addStatement("super.${api.listenerMethod}(l)")
+          nextControlFlow("else if (l != null)")
+          addStatement("$disposable = $subscribeListener(l)")
+          endControlFlow()
+        } else {
+          beginControlFlow("if (l != null)")
+          addCode(CodeBlock.builder()
+              .add("$disposable = $rxBindingMethod()")
+              .add(".subscribe($consumer)\n")
+              .build())
+          endControlFlow()
+        }
+      }
       .endControlFlow()
       .build())
 
@@ -190,21 +297,26 @@ fun addRxBindingApiForSettable(type: TypeSpec.Builder, api: KotlinSettableApi, i
         }
       }
       .addModifiers(KModifier.OPEN)
-      .returns(KotlinRxTypeNames.Rx.Observable.parameterizedBy(api.observableType.irrelevantIfObject()))
-      .beginControlFlow("if ($rxBindingMethod == null)")
+      .returns(KotlinRxTypeNames.Rx.Observable.parameterizedBy(api.observableType.irrelevantIfObject(artistRxConfig)))
+      .apply {
+        if (compactRxState) {
+          addStatement("val $RX_STATE_VARIABLE = ${KotlinRxState.PROPERTY}()")
+        }
+      }
+      .beginControlFlow("if ($relay == null)")
       .addStatement("$isInitting = true")
       .apply {
         if (api.relayInitializer != null) {
-          addCode("$rxBindingMethod = ", KotlinRxTypeNames.Rx.BehaviorRelay)
+          addCode("$relay = ", KotlinRxTypeNames.Rx.BehaviorRelay)
           addCode(api.relayInitializer)
         } else {
-          addStatement("$rxBindingMethod = %T.create()",
+          addStatement("$relay = %T.create()",
               if (api.isStateful) KotlinRxTypeNames.Rx.BehaviorRelay else KotlinRxTypeNames.Rx.PublishRelay)
         }
       }
       .addCode(CodeBlock.builder()
           .apply {
-            add("$rxBindingMethod?.let {\n")
+            add("$relay?.let {\n")
           }
           .apply {
             if (rx_alias != null) {
@@ -224,10 +336,19 @@ fun addRxBindingApiForSettable(type: TypeSpec.Builder, api: KotlinSettableApi, i
           .addStatement(".subscribe(it)")
           .addStatement(" }\n")
           .build())
+      .apply {
+        if (directListeners) {
+          // The rx binding replaced the listener that was set on the view, it now gets its events from the relay
+          beginControlFlow("$listener?.let")
+          addStatement("$disposable = $subscribeListener(it)")
+          addStatement("$listener = null")
+          endControlFlow()
+        }
+      }
       .endControlFlow()
       .addCode(CodeBlock.builder()
-          .add("return $rxBindingMethod?.hide()?")
-          .apply { artistRxConfig.processRxBindingStream(this, api.observableType.irrelevantIfObject()) }
+          .add("return $relay?.hide()?")
+          .apply { artistRxConfig.processRxBindingStream(this, api.observableType.irrelevantIfObject(artistRxConfig)) }
           .add(" ?: Observable.empty()")
           .build())
       .build())
@@ -25,16 +25,41 @@ import com.squareup.kotlinpoet.KModifier
 import com.squareup.kotlinpoet.ParameterizedTypeName.Companion.parameterizedBy
 import com.squareup.kotlinpoet.PropertySpec
 import com.squareup.kotlinpoet.TypeSpec
+import com.uber.artist.api.FinishingTrait
 import com.uber.artist.api.KotlinTrait
+import com.uber.artist.api.MemoizingTrait
+import com.uber.artist.api.TraitMemberCache
 
 @AutoService(KotlinTrait::class)
-class KotlinCheckableTrait : KotlinTrait {
+class KotlinCheckableTrait : KotlinTrait, MemoizingTrait<TypeSpec.Builder, FunSpec.Builder, ClassName>,
+    FinishingTrait<TypeSpec.Builder, FunSpec.Builder, ClassName> {
   override fun generateFor(
       type: TypeSpec.Builder,
       initMethod: FunSpec.Builder,
       rClass: ClassName,
       baseType: String) {
+    generateFor(type, baseType, null)
+  }
+
+  override fun generateFor(
+      type: TypeSpec.Builder,
+      initMethod: FunSpec.Builder,
+      rClass: ClassName,
+      baseType: String,
+      memberCache: TraitMemberCache) {
+    generateFor(type, baseType, KotlinRxState.of(type, memberCache))
+  }
+
+  override fun finishFor(
+      type: TypeSpec.Builder,
+      initMethod: FunSpec.Builder,
+      rClass: ClassName,
+      baseType: String,
+      memberCache: TraitMemberCache) {
+    KotlinRxState.finishFor(type, memberCache)
+  }
 
+  private fun generateFor(type: TypeSpec.Builder, baseType: String, rxState: KotlinRxState?) {
     val isTextView = baseType.endsWith("TextView")
 
     if (isTextView) {
@@ -80,7 +105,7 @@ class KotlinCheckableTrait : KotlinTrait {
               .addStatement("l.onCheckedChanged(this@$baseType, isChecked)"),
           true,
           CodeBlock.of("%T.createDefault(isChecked())\n", KotlinRxTypeNames.Rx.BehaviorRelay)
-      ))
+      ), rxState = rxState)
     }
   }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.traits.rx
+
+import com.squareup.kotlinpoet.BOOLEAN
+import com.squareup.kotlinpoet.ClassName
+import com.squareup.kotlinpoet.FunSpec
+import com.squareup.kotlinpoet.INT
+import com.squareup.kotlinpoet.KModifier
+import com.squareup.kotlinpoet.LONG
+import com.squareup.kotlinpoet.ParameterizedTypeName.Companion.parameterizedBy
+import com.squareup.kotlinpoet.PropertySpec
+import com.squareup.kotlinpoet.TypeName
+import com.squareup.kotlinpoet.TypeSpec
+import com.uber.artist.api.KotlinTypeNames
+
+/**
+ * Generates `ArtistFrameScrollEvent`, the event of the frame-coalesced scroll streams of scrollable views. It sums up
+ * the scroll deltas of all scroll callbacks within a frame and emits itself once per frame from a choreographer
+ * callback. A view reuses its instance for every frame, so scrolling doesn't allocate.
+ */
+internal object KotlinFrameScrollEvent {
+
+  val className = ClassName("", "ArtistFrameScrollEvent")
+
+  fun typeSpec(): TypeSpec.Builder {
+    val privateSetter = FunSpec.setterBuilder().addModifiers(KModifier.PRIVATE).build()
+    val counter = { name: String, type: TypeName, value: String ->
+      PropertySpec.builder(name, type)
+          .mutable(true)
+          .setter(privateSetter)
+          .initializer(value)
+          .build()
+    }
+
+    return TypeSpec.classBuilder(className.simpleName)
+        .addKdoc("The scroll deltas of a view summed up over one frame.\n"
+            + "Instances are reused for every frame, so observers must not keep them.\n")
+        .addSuperinterface(KotlinTypeNames.Android.ChoreographerFrameCallback)
+        .primaryConstructor(FunSpec.constructorBuilder()
+            .addModifiers(KModifier.INTERNAL)
+            .addParameter("view", KotlinTypeNames.Android.View)
+            .build())
+        .addProperty(PropertySpec.builder("view", KotlinTypeNames.Android.View)
+            .initializer("view")
+            .build())
+        .addProperty(PropertySpec.builder("relay", KotlinRxTypeNames.Rx.PublishRelay.parameterizedBy(className),
+            KModifier.PRIVATE)
+            .initializer("%T.create()", KotlinRxTypeNames.Rx.PublishRelay)
+            .build())
+        .addProperty(counter("dx", INT, "0"))
+        .addProperty(counter("dy", INT, "0"))
+        .addProperty(counter("frameTimeNanos", LONG, "0L"))
+        .addProperty(PropertySpec.builder("scheduled", BOOLEAN, KModifier.PRIVATE)
+            .mutable(true)
+            .initializer("false")
+            .build())
+        .addFunction(FunSpec.builder("events")
+            .addModifiers(KModifier.INTERNAL)
+            .returns(KotlinRxTypeNames.Rx.Observable.parameterizedBy(className))
+            .addStatement("return relay.hide()")
+            .build())
+        .addFunction(FunSpec.builder("onScroll")
+            .addModifiers(KModifier.INTERNAL)
+            .addParameter("deltaX", INT)
+            .addParameter("deltaY", INT)
+            .beginControlFlow("if (!relay.hasObservers())")
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement("dx += deltaX")
+            .addStatement("dy += deltaY")
+            .beginControlFlow("if (!scheduled)")
+            .addStatement("scheduled = true")
+            .addStatement("%T.getInstance().postFrameCallback(this)", KotlinTypeNames.Android.Choreographer)
+            .endControlFlow()
+            .build())
+        .addFunction(FunSpec.builder("doFrame")
+            .addModifiers(KModifier.OVERRIDE)
+            .addParameter("frameTimeNanos", LONG)
+            .addStatement("scheduled = false")
+            .addStatement("this.frameTimeNanos = frameTimeNanos")
+            .addStatement("relay.accept(this)")
+            .addStatement("dx = 0")
+            .addStatement("dy = 0")
+            .build())
+  }
+}
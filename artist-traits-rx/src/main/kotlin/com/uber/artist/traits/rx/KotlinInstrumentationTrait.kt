@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.traits.rx
+
+import com.google.auto.service.AutoService
+import com.squareup.kotlinpoet.ClassName
+import com.squareup.kotlinpoet.BOOLEAN
+import com.squareup.kotlinpoet.CodeBlock
+import com.squareup.kotlinpoet.FunSpec
+import com.squareup.kotlinpoet.INT
+import com.squareup.kotlinpoet.KModifier
+import com.squareup.kotlinpoet.TypeSpec
+import com.uber.artist.api.HotMethodsTrait
+import com.uber.artist.api.KotlinTrait
+import com.uber.artist.api.KotlinTypeNames
+import com.uber.artist.api.SupportTypesTrait
+import com.uber.artist.traits.rx.config.KotlinArtistRxConfigService
+
+/**
+ * Runs the code of [com.uber.artist.traits.rx.config.KotlinArtistRxConfig.processImpression] and
+ * [com.uber.artist.traits.rx.config.KotlinArtistRxConfig.processVisibilityChanges] from overrides of the view's attach
+ * and visibility callbacks. Unlike an rx chain per view, this neither subscribes nor allocates. Callbacks whose plugin
+ * point generates no code aren't overridden.
+ *
+ * With [com.uber.artist.traits.rx.config.KotlinArtistRxConfig.uiEvents], taps, attaches and visibility changes are also
+ * recorded to the generated `ArtistUiEvents`.
+ */
+@AutoService(KotlinTrait::class)
+class KotlinInstrumentationTrait : KotlinTrait, HotMethodsTrait, SupportTypesTrait<TypeSpec.Builder> {
+  private val artistRxConfig by lazy { KotlinArtistRxConfigService.newInstance().getArtistRxConfig() }
+
+  override fun generateFor(
+      type: TypeSpec.Builder,
+      initMethod: FunSpec.Builder,
+      rClass: ClassName,
+      sourceType: String) {
+
+    val uiEvents = artistRxConfig.uiEvents()
+    if (uiEvents) {
+      type.addFunction(FunSpec.builder("performClick")
+          .addModifiers(KModifier.OVERRIDE)
+          .returns(BOOLEAN)
+          .addStatement("%T.record(%T.TAP, id)", KotlinUiEvents.className, KotlinUiEvents.className)
+          .addStatement("return super.performClick()")
+          .build())
+    }
+
+    val impression = impression()
+    if (!impression.isEmpty()) {
+      type.addFunction(FunSpec.builder("onAttachedToWindow")
+          .addModifiers(KModifier.OVERRIDE)
+          .addStatement("super.onAttachedToWindow()")
+          .addCode(impression)
+          .build())
+    }
+
+    val visibilityChange = visibilityChange()
+    if (!visibilityChange.isEmpty()) {
+      type.addFunction(FunSpec.builder("onVisibilityChanged")
+          .addModifiers(KModifier.OVERRIDE)
+          .addParameter("changedView", KotlinTypeNames.Android.View)
+          .addParameter("visibility", INT)
+          .addStatement("super.onVisibilityChanged(changedView, visibility)")
+          .addCode(visibilityChange)
+          .build())
+      type.addFunction(FunSpec.builder("onWindowVisibilityChanged")
+          .addModifiers(KModifier.OVERRIDE)
+          .addParameter("visibility", INT)
+          .addStatement("super.onWindowVisibilityChanged(visibility)")
+          .addCode(visibilityChange)
+          .build())
+    }
+  }
+
+  override fun hotMethods(sourceType: String) = LinkedHashSet<String>().apply {
+    if (artistRxConfig.uiEvents()) {
+      add("performClick")
+    }
+    if (!impression().isEmpty()) {
+      add("onAttachedToWindow")
+    }
+    if (!visibilityChange().isEmpty()) {
+      add("onVisibilityChanged")
+      add("onWindowVisibilityChanged")
+    }
+  }
+
+  override fun supportTypes(): List<TypeSpec.Builder> =
+      if (artistRxConfig.uiEvents()) listOf(KotlinUiEvents.typeSpec()) else emptyList()
+
+  private fun impression() = CodeBlock.builder().apply {
+    if (artistRxConfig.uiEvents()) {
+      addStatement("%T.record(%T.ATTACH, id)", KotlinUiEvents.className, KotlinUiEvents.className)
+    }
+    artistRxConfig.processImpression(this)
+  }.build()
+
+  private fun visibilityChange() = CodeBlock.builder().apply {
+    if (artistRxConfig.uiEvents()) {
+      addStatement("%T.record(if (visibility == %T.VISIBLE) %T.SHOWN else %T.HIDDEN, id)", KotlinUiEvents.className,
+          KotlinTypeNames.Android.View, KotlinUiEvents.className, KotlinUiEvents.className)
+    }
+    artistRxConfig.processVisibilityChanges(this)
+  }.build()
+}
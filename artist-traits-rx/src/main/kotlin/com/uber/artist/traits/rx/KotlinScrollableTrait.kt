@@ -19,17 +19,48 @@ package com.uber.artist.traits.rx
 import com.google.auto.service.AutoService
 import com.squareup.kotlinpoet.ClassName
 import com.squareup.kotlinpoet.FunSpec
+import com.squareup.kotlinpoet.INT
+import com.squareup.kotlinpoet.KModifier
+import com.squareup.kotlinpoet.ParameterizedTypeName.Companion.parameterizedBy
+import com.squareup.kotlinpoet.PropertySpec
 import com.squareup.kotlinpoet.TypeSpec
+import com.uber.artist.api.FinishingTrait
+import com.uber.artist.api.HotMethodsTrait
 import com.uber.artist.api.KotlinTrait
+import com.uber.artist.api.MemoizingTrait
+import com.uber.artist.api.SupportTypesTrait
+import com.uber.artist.api.TraitMemberCache
 
 @AutoService(KotlinTrait::class)
-class KotlinScrollableTrait : KotlinTrait {
+class KotlinScrollableTrait : KotlinTrait, MemoizingTrait<TypeSpec.Builder, FunSpec.Builder, ClassName>,
+    FinishingTrait<TypeSpec.Builder, FunSpec.Builder, ClassName>, HotMethodsTrait, SupportTypesTrait<TypeSpec.Builder> {
   override fun generateFor(
       type: TypeSpec.Builder,
       initMethod: FunSpec.Builder,
       rClass: ClassName,
       sourceType: String) {
+    generateFor(type, sourceType, null)
+  }
+
+  override fun generateFor(
+      type: TypeSpec.Builder,
+      initMethod: FunSpec.Builder,
+      rClass: ClassName,
+      sourceType: String,
+      memberCache: TraitMemberCache) {
+    generateFor(type, sourceType, KotlinRxState.of(type, memberCache))
+  }
+
+  override fun finishFor(
+      type: TypeSpec.Builder,
+      initMethod: FunSpec.Builder,
+      rClass: ClassName,
+      sourceType: String,
+      memberCache: TraitMemberCache) {
+    KotlinRxState.finishFor(type, memberCache)
+  }
 
+  private fun generateFor(type: TypeSpec.Builder, sourceType: String, rxState: KotlinRxState?) {
     // ScrollView overrides
     if (sourceType.contains("ScrollView")) {
       addRxBindingApiForSettable(type, KotlinSettableApi(
@@ -42,7 +73,7 @@ class KotlinScrollableTrait : KotlinTrait {
           KotlinRxTypeNames.Rx.ViewScrollChangeEvent,
           FunSpec.builder("accept")
               .addParameter("event", KotlinRxTypeNames.Rx.ViewScrollChangeEvent)
-              .addStatement("l.onScrollChange(this@$sourceType, event.scrollX, event.scrollY, event.oldScrollX, event.oldScrollY)")))
+              .addStatement("l.onScrollChange(this@$sourceType, event.scrollX, event.scrollY, event.oldScrollX, event.oldScrollY)")), rxState = rxState)
     }
 
     // RecyclerView overrides
@@ -53,5 +84,60 @@ class KotlinScrollableTrait : KotlinTrait {
               "@return an observable of scroll events on this RecyclerView"),
           KotlinRxTypeNames.Rx.RecyclerViewScrollEvent))
     }
+
+    if (isScrollable(sourceType)) {
+      addFrameScrollEvents(type, sourceType)
+    }
+  }
+
+  override fun hotMethods(sourceType: String) = when {
+    isRecyclerView(sourceType) -> setOf("onScrolled")
+    isScrollable(sourceType) -> setOf("onScrollChanged")
+    else -> emptySet()
+  }
+
+  override fun supportTypes() = listOf(KotlinFrameScrollEvent.typeSpec())
+
+  private fun isScrollable(sourceType: String) = sourceType.contains("ScrollView") || isRecyclerView(sourceType)
+
+  private fun isRecyclerView(sourceType: String) = sourceType.contains("RecyclerView")
+
+  /**
+   * Adds `frameScrollEvents()`, which sums up the scroll deltas within a frame and emits them at most once per frame
+   * through the reused event of the view. RecyclerViews report their deltas through `onScrolled()`, since they call
+   * `onScrollChanged()` with the same old and new scroll position. Other views use `onScrollChanged()`.
+   */
+  private fun addFrameScrollEvents(type: TypeSpec.Builder, sourceType: String) {
+    val eventType = KotlinFrameScrollEvent.className
+    type.addProperty(PropertySpec.builder("frameScrollEvent", eventType.copy(nullable = true), KModifier.PRIVATE)
+        .mutable(true)
+        .initializer("null")
+        .build())
+    type.addFunction(FunSpec.builder("frameScrollEvents")
+        .addKdoc("@return an observable of the scroll deltas of this view, emitting at most once per frame. The event "
+            + "is reused for every frame, so observers must not keep it.\n")
+        .returns(KotlinRxTypeNames.Rx.Observable.parameterizedBy(eventType))
+        .addStatement("val event = frameScrollEvent ?: %T(this).also { frameScrollEvent = it }", eventType)
+        .addStatement("return event.events()")
+        .build())
+    if (isRecyclerView(sourceType)) {
+      type.addFunction(FunSpec.builder("onScrolled")
+          .addModifiers(KModifier.OVERRIDE)
+          .addParameter("dx", INT)
+          .addParameter("dy", INT)
+          .addStatement("super.onScrolled(dx, dy)")
+          .addStatement("frameScrollEvent?.onScroll(dx, dy)")
+          .build())
+    } else {
+      type.addFunction(FunSpec.builder("onScrollChanged")
+          .addModifiers(KModifier.OVERRIDE)
+          .addParameter("l", INT)
+          .addParameter("t", INT)
+          .addParameter("oldl", INT)
+          .addParameter("oldt", INT)
+          .addStatement("super.onScrollChanged(l, t, oldl, oldt)")
+          .addStatement("frameScrollEvent?.onScroll(l - oldl, t - oldt)")
+          .build())
+    }
   }
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.traits.rx
+
+import com.squareup.kotlinpoet.ClassName
+import com.squareup.kotlinpoet.FunSpec
+import com.squareup.kotlinpoet.INT
+import com.squareup.kotlinpoet.KModifier
+import com.squareup.kotlinpoet.LONG
+import com.squareup.kotlinpoet.PropertySpec
+import com.squareup.kotlinpoet.TypeName
+import com.squareup.kotlinpoet.TypeSpec
+import com.squareup.kotlinpoet.asClassName
+import com.squareup.kotlinpoet.asTypeName
+import com.uber.artist.api.KotlinTypeNames
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * Generates `ArtistUiEvents`, the runtime that generated views record their UI events to, see
+ * [com.uber.artist.traits.rx.config.KotlinArtistRxConfig.uiEvents].
+ *
+ * Events are kept in a bounded, lock-free ring buffer of primitives that many threads can write to and a single
+ * daemon thread drains in batches to the consumer set by the app. Recording an event neither locks nor allocates. When
+ * the buffer is full, events are dropped and counted. A consumer that throws is logged and only loses the batch it was
+ * given.
+ */
+internal object KotlinUiEvents {
+
+  val className = ClassName("", "ArtistUiEvents")
+
+  private val consumerType = className.nestedClass("Consumer")
+
+  fun typeSpec(): TypeSpec.Builder {
+    val intArray = IntArray::class.asTypeName()
+    val longArray = LongArray::class.asTypeName()
+
+    return TypeSpec.objectBuilder(className.simpleName)
+        .addKdoc("UI events of the generated views, drained in batches to a [Consumer] on a background thread.\n")
+        .addProperty(constant("TAP", INT, "1"))
+        .addProperty(constant("ATTACH", INT, "2"))
+        .addProperty(constant("SHOWN", INT, "3"))
+        .addProperty(constant("HIDDEN", INT, "4"))
+        .addProperty(constant("CAPACITY", INT, "1024", KModifier.PRIVATE))
+        .addProperty(constant("MASK", INT, "CAPACITY - 1", KModifier.PRIVATE))
+        .addProperty(constant("DRAIN_INTERVAL_MS", LONG, "100L", KModifier.PRIVATE))
+        .addProperty(PropertySpec.builder("sequences", AtomicLongArray::class, KModifier.PRIVATE)
+            .addKdoc("Per slot, the position it can be written at or, once written, that position + 1.\n")
+            .initializer("%T(CAPACITY).apply { for (i in 0 until CAPACITY) set(i, i.toLong()) }",
+                AtomicLongArray::class)
+            .build())
+        .addProperty(PropertySpec.builder("events", longArray, KModifier.PRIVATE)
+            .addKdoc("Per slot, the event type in the upper and the view id in the lower 32 bits.\n")
+            .initializer("LongArray(CAPACITY)")
+            .build())
+        .addProperty(PropertySpec.builder("timestamps", longArray, KModifier.PRIVATE)
+            .initializer("LongArray(CAPACITY)")
+            .build())
+        .addProperty(PropertySpec.builder("head", AtomicLong::class, KModifier.PRIVATE)
+            .initializer("%T()", AtomicLong::class)
+            .build())
+        .addProperty(PropertySpec.builder("dropped", AtomicLong::class, KModifier.PRIVATE)
+            .initializer("%T()", AtomicLong::class)
+            .build())
+        .addProperty(PropertySpec.builder("consumer", consumerType.copy(nullable = true), KModifier.PRIVATE)
+            .addAnnotation(Volatile::class)
+            .mutable(true)
+            .initializer("null")
+            .build())
+        .addProperty(PropertySpec.builder("drainThread", Thread::class.asClassName().copy(nullable = true), KModifier.PRIVATE)
+            .mutable(true)
+            .initializer("null")
+            .build())
+        .addType(TypeSpec.interfaceBuilder(consumerType.simpleName)
+            .addFunction(FunSpec.builder("onEvents")
+                .addKdoc("Receives a batch of events on the drain thread. The arrays are reused, only their\n"
+                    + "first [count] entries are valid.\n")
+                .addModifiers(KModifier.ABSTRACT)
+                .addParameter("types", intArray)
+                .addParameter("viewIds", intArray)
+                .addParameter("timestampsNanos", longArray)
+                .addParameter("count", INT)
+                .build())
+            .build())
+        .addFunction(FunSpec.builder("setConsumer")
+            .addKdoc("Sets the consumer of events and starts the drain thread on first use.\n")
+            .addAnnotation(JvmStatic::class)
+            .addAnnotation(Synchronized::class)
+            .addParameter("eventConsumer", consumerType.copy(nullable = true))
+            .addStatement("consumer = eventConsumer")
+            .beginControlFlow("if (eventConsumer != null && drainThread == null)")
+            .addStatement("drainThread = %T(%T { drain() }, %S).apply { isDaemon = true; start() }", Thread::class,
+                Runnable::class, "ArtistUiEvents")
+            .endControlFlow()
+            .build())
+        .addFunction(FunSpec.builder("droppedEvents")
+            .addKdoc("The number of events dropped because the buffer was full.\n")
+            .addAnnotation(JvmStatic::class)
+            .returns(LONG)
+            .addStatement("return dropped.get()")
+            .build())
+        .addFunction(FunSpec.builder("record")
+            .addKdoc("Records an event without locking or allocating. Safe to call from any thread.\n")
+            .addAnnotation(JvmStatic::class)
+            .addParameter("type", INT)
+            .addParameter("viewId", INT)
+            .beginControlFlow("if (consumer == null)")
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement("val timestamp = System.nanoTime()")
+            .beginControlFlow("while (true)")
+            .addStatement("val position = head.get()")
+            .addStatement("val index = position.toInt() and MASK")
+            .addStatement("val sequence = sequences.get(index)")
+            .beginControlFlow("if (sequence == position)")
+            .beginControlFlow("if (head.compareAndSet(position, position + 1))")
+            .addStatement("events[index] = (type.toLong() shl 32) or (viewId.toLong() and 0xFFFFFFFFL)")
+            .addStatement("timestamps[index] = timestamp")
+            .addStatement("sequences.lazySet(index, position + 1)")
+            .addStatement("return")
+            .endControlFlow()
+            .nextControlFlow("else if (sequence < position)")
+            .addComment("The slot wasn't drained yet, the buffer is full")
+            .addStatement("dropped.incrementAndGet()")
+            .addStatement("return")
+            .endControlFlow()
+            .endControlFlow()
+            .build())
+        .addFunction(FunSpec.builder("drain")
+            .addModifiers(KModifier.PRIVATE)
+            .addStatement("val types = IntArray(CAPACITY)")
+            .addStatement("val viewIds = IntArray(CAPACITY)")
+            .addStatement("val batchTimestamps = LongArray(CAPACITY)")
+            .addStatement("var tail = 0L")
+            .beginControlFlow("while (true)")
+            .addStatement("var count = 0")
+            .beginControlFlow("while (count < CAPACITY)")
+            .addStatement("val index = tail.toInt() and MASK")
+            .beginControlFlow("if (sequences.get(index) != tail + 1)")
+            .addStatement("break")
+            .endControlFlow()
+            .addStatement("val event = events[index]")
+            .addStatement("types[count] = (event ushr 32).toInt()")
+            .addStatement("viewIds[count] = event.toInt()")
+            .addStatement("batchTimestamps[count] = timestamps[index]")
+            .addStatement("sequences.lazySet(index, tail + CAPACITY)")
+            .addStatement("tail++")
+            .addStatement("count++")
+            .endControlFlow()
+            .addStatement("val eventConsumer = consumer")
+            .beginControlFlow("if (count > 0 && eventConsumer != null)")
+            .beginControlFlow("try")
+            .addStatement("eventConsumer.onEvents(types, viewIds, batchTimestamps, count)")
+            .nextControlFlow("catch (e: %T)", Exception::class)
+            .addComment("Only this batch is lost, later events must still reach the consumer")
+            .addStatement("%T.e(%S, %S, e)", KotlinTypeNames.Android.Log, "ArtistUiEvents", "Event consumer failed")
+            .endControlFlow()
+            .endControlFlow()
+            .beginControlFlow("if (count < CAPACITY)")
+            .beginControlFlow("try")
+            .addStatement("Thread.sleep(DRAIN_INTERVAL_MS)")
+            .nextControlFlow("catch (e: %T)", InterruptedException::class)
+            .addComment("Lets the next consumer start a new drain thread")
+            .addStatement("synchronized(this) { drainThread = null }")
+            .addStatement("return")
+            .endControlFlow()
+            .endControlFlow()
+            .endControlFlow()
+            .build())
+  }
+
+  private fun constant(name: String, type: TypeName, value: String, vararg modifiers: KModifier) =
+      PropertySpec.builder(name, type, *modifiers, KModifier.CONST).initializer(value).build()
+}
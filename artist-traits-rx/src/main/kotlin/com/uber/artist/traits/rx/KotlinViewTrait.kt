@@ -20,12 +20,17 @@ import com.google.auto.service.AutoService
 import com.squareup.kotlinpoet.ClassName
 import com.squareup.kotlinpoet.FunSpec
 import com.squareup.kotlinpoet.TypeSpec
+import com.uber.artist.api.FinishingTrait
+import com.uber.artist.api.HotMethodsTrait
 import com.uber.artist.api.KotlinTrait
 import com.uber.artist.api.KotlinTypeNames
+import com.uber.artist.api.MemoizingTrait
+import com.uber.artist.api.TraitMemberCache
 import com.uber.artist.traits.rx.config.KotlinArtistRxConfigService
 
 @AutoService(KotlinTrait::class)
-open class KotlinViewTrait : KotlinTrait {
+open class KotlinViewTrait : KotlinTrait, MemoizingTrait<TypeSpec.Builder, FunSpec.Builder, ClassName>,
+    FinishingTrait<TypeSpec.Builder, FunSpec.Builder, ClassName>, HotMethodsTrait {
   private val artistRxConfig by lazy { KotlinArtistRxConfigService.newInstance().getArtistRxConfig() }
 
   override fun generateFor(
@@ -33,13 +38,38 @@ open class KotlinViewTrait : KotlinTrait {
       initMethod: FunSpec.Builder,
       rClass: ClassName,
       sourceType: String) {
+    generateFor(type, sourceType, null)
+  }
+
+  override fun generateFor(
+      type: TypeSpec.Builder,
+      initMethod: FunSpec.Builder,
+      rClass: ClassName,
+      sourceType: String,
+      memberCache: TraitMemberCache) {
+    generateFor(type, sourceType, KotlinRxState.of(type, memberCache))
+  }
 
-    clicks(type, sourceType)
-    longClicks(type, sourceType)
+  override fun finishFor(
+      type: TypeSpec.Builder,
+      initMethod: FunSpec.Builder,
+      rClass: ClassName,
+      sourceType: String,
+      memberCache: TraitMemberCache) {
+    KotlinRxState.finishFor(type, memberCache)
+  }
+
+  private fun generateFor(type: TypeSpec.Builder, sourceType: String, rxState: KotlinRxState?) {
+    clicks(type, sourceType, rxState)
+    longClicks(type, sourceType, rxState)
     layoutChanges(type)
   }
 
-  open fun clicks(type: TypeSpec.Builder, sourceType: String) {
+  // Screens usually subscribe to these while they start.
+  override fun hotMethods(sourceType: String) =
+      setOf("clicks", "longClicks", "layoutChanges", "setOnClickListener", "setOnLongClickListener")
+
+  open fun clicks(type: TypeSpec.Builder, sourceType: String, rxState: KotlinRxState? = null) {
     addRxBindingApiForSettable(type, KotlinSettableApi(
         KotlinRxBindingInfo(KotlinRxTypeNames.Rx.RxView,
             "clicks",
@@ -51,10 +81,10 @@ open class KotlinViewTrait : KotlinTrait {
         FunSpec.builder("accept")
             .addParameter("ignored", artistRxConfig.rxBindingSignalEventTypeName())
             .addStatement("l.onClick(this@$sourceType)")
-    ))
+    ), rxState = rxState)
   }
 
-  open fun longClicks(type: TypeSpec.Builder, sourceType: String) {
+  open fun longClicks(type: TypeSpec.Builder, sourceType: String, rxState: KotlinRxState? = null) {
     addRxBindingApiForSettable(type, KotlinSettableApi(
         KotlinRxBindingInfo(KotlinRxTypeNames.Rx.RxView,
             "longClicks",
@@ -66,7 +96,7 @@ open class KotlinViewTrait : KotlinTrait {
         FunSpec.builder("accept")
             .addParameter("ignored", artistRxConfig.rxBindingSignalEventTypeName())
             .addStatement("l.onLongClick(this@$sourceType)")
-    ))
+    ), rxState = rxState)
   }
 
   open fun layoutChanges(type: TypeSpec.Builder) {
@@ -16,18 +16,18 @@
 
 package com.uber.artist.traits.rx.config
 
-import java.util.ServiceLoader
+import com.uber.artist.api.ArtistServiceRegistry
 
 class JavaArtistRxConfigService private constructor() : ArtistRxConfigService<JavaArtistRxConfig> {
 
-  private val serviceLoader = ServiceLoader.load(JavaArtistRxConfig::class.java)
-
   /**
    * Gets the optionally overridden [ArtistRxConfig] implementation or the default.
    *
    * @return The located [ArtistRxConfig] or a default config if not provided.
    */
-  override fun getArtistRxConfig(): JavaArtistRxConfig = serviceLoader.asIterable().firstOrNull() ?: DEFAULT_CONFIG
+  override fun getArtistRxConfig(): JavaArtistRxConfig {
+    return ArtistServiceRegistry.load(JavaArtistRxConfig::class.java).firstOrNull() ?: DEFAULT_CONFIG
+  }
 
   companion object {
     private val DEFAULT_CONFIG: JavaArtistRxConfig = JavaDefaultArtistRxConfig()
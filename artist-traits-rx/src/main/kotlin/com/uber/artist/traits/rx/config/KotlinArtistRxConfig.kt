@@ -31,12 +31,15 @@ abstract class KotlinArtistRxConfig : ArtistRxConfig<CodeBlock.Builder, TypeName
   override fun processTap(codeBlockBuilder: CodeBlock.Builder) {}
 
   /**
-   * Plugin point for generating additional code to invoke when a view has attached to the window.
+   * Plugin point for generating additional code to invoke when a view has attached to the window. The code runs in
+   * `onAttachedToWindow()` of views with the instrumentation trait and should neither allocate nor subscribe.
    */
   override fun processImpression(codeBlockBuilder: CodeBlock.Builder) {}
 
   /**
-   * Plugin point for generating additional code to invoke when a view has changed visibility.
+   * Plugin point for generating additional code to invoke when a view has changed visibility. The code runs in
+   * `onVisibilityChanged()` and `onWindowVisibilityChanged()` of views with the instrumentation trait, where
+   * `visibility` holds the new visibility of the view, one of its ancestors or its window.
    */
   override fun processVisibilityChanges(codeBlockBuilder: CodeBlock.Builder) {}
 
@@ -56,4 +59,29 @@ abstract class KotlinArtistRxConfig : ArtistRxConfig<CodeBlock.Builder, TypeName
    * has been overridden to map the signal events to a new type. The default type is Object.
    */
   override fun rxBindingSignalEventTypeName(): TypeName = UNIT
+
+  /**
+   * Whether the state behind the settable rx APIs of a view, such as `clicks()`, is kept in a single holder object
+   * that is only allocated once one of these rx APIs or their listener setters is called, instead of in fields of the
+   * view. The view then has a single field for all of them, which saves memory when many views are alive but few of
+   * them are subscribed to. Defaults to false.
+   */
+  override fun compactRxState(): Boolean = false
+
+  /**
+   * Whether listeners passed to the overridden listener setters of the settable rx APIs, such as
+   * `setOnClickListener`, are set on the view directly as long as the rx API, such as `clicks()`, wasn't called. This
+   * avoids creating the relay and rx binding for views that only have plain listeners. Once the rx API is called, the
+   * listener is moved to its relay. Events delivered to a listener directly don't run through [processTap] or
+   * [processRxBindingStream]. Defaults to false.
+   */
+  override fun directListeners(): Boolean = false
+
+  /**
+   * Whether views with the instrumentation trait record taps, attaches and visibility changes to the generated
+   * `ArtistUiEvents` runtime, which collects them in a lock-free ring buffer and drains them in batches to the consumer
+   * set with `ArtistUiEvents.setConsumer()` on a background thread. Recording neither locks nor allocates, and events
+   * are dropped rather than blocking the UI thread when the buffer is full. Defaults to false.
+   */
+  override fun uiEvents(): Boolean = false
 }
@@ -16,18 +16,18 @@
 
 package com.uber.artist.traits.rx.config
 
-import java.util.ServiceLoader
+import com.uber.artist.api.ArtistServiceRegistry
 
 class KotlinArtistRxConfigService private constructor() : ArtistRxConfigService<KotlinArtistRxConfig> {
 
-  private val serviceLoader = ServiceLoader.load(KotlinArtistRxConfig::class.java)
-
   /**
    * Gets the optionally overridden [ArtistRxConfig] implementation or the default.
    *
    * @return The located [ArtistRxConfig] or a default config if not provided.
    */
-  override fun getArtistRxConfig(): KotlinArtistRxConfig = serviceLoader.asIterable().firstOrNull() ?: DEFAULT_CONFIG
+  override fun getArtistRxConfig(): KotlinArtistRxConfig {
+    return ArtistServiceRegistry.load(KotlinArtistRxConfig::class.java).firstOrNull() ?: DEFAULT_CONFIG
+  }
 
   companion object {
     private val DEFAULT_CONFIG: KotlinArtistRxConfig = KotlinDefaultArtistRxConfig()
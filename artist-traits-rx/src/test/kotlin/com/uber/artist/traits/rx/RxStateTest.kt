@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.traits.rx
+
+import com.google.common.io.Files
+import com.google.common.truth.Truth.assertThat
+import com.squareup.javapoet.ClassName
+import com.squareup.javapoet.MethodSpec
+import com.squareup.javapoet.TypeSpec
+import com.uber.artist.api.TraitMemberCache
+import com.uber.artist.traits.rx.config.JavaArtistRxConfig
+import org.junit.Test
+import java.net.URLClassLoader
+
+class RxStateTest {
+
+    @Test
+    fun testRxTraits_withCompactRxState_shouldShareOneHolderPerView() {
+        withConfig(CompactRxStateConfig::class.java) {
+            val type = TypeSpec.classBuilder("MySwitch")
+            val memberCache = TraitMemberCache()
+            val initMethod = MethodSpec.methodBuilder("init")
+            val viewTrait = JavaViewTrait()
+            val checkableTrait = JavaCheckableTrait()
+            viewTrait.generateFor(type, initMethod, R_CLASS, "MySwitch", memberCache)
+            checkableTrait.generateFor(type, initMethod, R_CLASS, "MySwitch", memberCache)
+            viewTrait.finishFor(type, initMethod, R_CLASS, "MySwitch", memberCache)
+            checkableTrait.finishFor(type, initMethod, R_CLASS, "MySwitch", memberCache)
+
+            val view = type.build()
+            assertThat(view.fieldSpecs.map { it.name }).containsExactly("artistRxState")
+            val holder = view.typeSpecs.single()
+            assertThat(holder.name).isEqualTo("ArtistRxState")
+            assertThat(holder.fieldSpecs.map { it.name }).containsAllOf("clicks", "longClicks", "checkedChanges")
+        }
+    }
+
+    @Test
+    fun testRxTraits_withoutCompactRxState_shouldKeepStateInView() {
+        val type = TypeSpec.classBuilder("MyButton")
+        val memberCache = TraitMemberCache()
+        JavaViewTrait().generateFor(type, MethodSpec.methodBuilder("init"), R_CLASS, "MyButton", memberCache)
+        JavaViewTrait().finishFor(type, MethodSpec.methodBuilder("init"), R_CLASS, "MyButton", memberCache)
+
+        val view = type.build()
+        assertThat(view.typeSpecs).isEmpty()
+        assertThat(view.fieldSpecs.map { it.name }).containsAllOf("clicks", "clicksDisposable", "longClicks")
+    }
+
+    @Test
+    fun testAddRxBindingApiForSettable_withoutRxState_shouldKeepStateInView() {
+        // Callers that don't pass a holder never reference one, whatever the config says.
+        withConfig(CompactRxStateConfig::class.java) {
+            val type = TypeSpec.classBuilder("MyButton")
+            JavaViewTrait().clicks(type, "MyButton")
+
+            val view = type.build()
+            assertThat(view.typeSpecs).isEmpty()
+            assertThat(view.fieldSpecs.map { it.name }).contains("clicks")
+        }
+    }
+
+    private fun withConfig(configClass: Class<out JavaArtistRxConfig>, block: () -> Unit) {
+        val servicesDir = Files.createTempDir()
+        servicesDir.resolve("META-INF/services").apply { mkdirs() }
+                .resolve(JavaArtistRxConfig::class.java.name)
+                .writeText(configClass.name)
+        val thread = Thread.currentThread()
+        val contextClassLoader = thread.contextClassLoader
+        thread.contextClassLoader = URLClassLoader(arrayOf(servicesDir.toURI().toURL()), javaClass.classLoader)
+        try {
+            block()
+        } finally {
+            thread.contextClassLoader = contextClassLoader
+        }
+    }
+
+    class CompactRxStateConfig : JavaArtistRxConfig() {
+        override fun compactRxState() = true
+    }
+
+    companion object {
+        private val R_CLASS = ClassName.get("foo", "R")
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.traits.rx
+
+import com.google.common.truth.Truth.assertThat
+import com.squareup.javapoet.ClassName
+import com.squareup.javapoet.MethodSpec
+import com.squareup.javapoet.TypeSpec
+import com.squareup.kotlinpoet.FunSpec
+import org.junit.Test
+import com.squareup.kotlinpoet.ClassName as KotlinClassName
+import com.squareup.kotlinpoet.TypeSpec as KotlinTypeSpec
+
+class ScrollableTraitTest {
+
+    @Test
+    fun testJavaScrollableTrait_withRecyclerView_shouldTakeDeltasFromOnScrolled() {
+        val type = TypeSpec.classBuilder("MyRecyclerView")
+        JavaScrollableTrait().generateFor(type, MethodSpec.methodBuilder("init"), ClassName.get("foo", "R"),
+                "MyRecyclerView")
+
+        val methods = type.build().methodSpecs
+        assertThat(methods.map { it.name }).doesNotContain("onScrollChanged")
+        val onScrolled = methods.single { it.name == "onScrolled" }
+        assertThat(onScrolled.parameters.map { it.name }).containsExactly("dx", "dy").inOrder()
+        assertThat(onScrolled.code.toString()).contains("super.onScrolled(dx, dy);")
+        assertThat(onScrolled.code.toString()).contains("frameScrollEvent.onScroll(dx, dy);")
+        assertThat(JavaScrollableTrait().hotMethods("MyRecyclerView")).containsExactly("onScrolled")
+    }
+
+    @Test
+    fun testJavaScrollableTrait_withScrollView_shouldTakeDeltasFromOnScrollChanged() {
+        val type = TypeSpec.classBuilder("MyScrollView")
+        JavaScrollableTrait().generateFor(type, MethodSpec.methodBuilder("init"), ClassName.get("foo", "R"),
+                "MyScrollView")
+
+        val methods = type.build().methodSpecs
+        assertThat(methods.map { it.name }).doesNotContain("onScrolled")
+        val onScrollChanged = methods.single { it.name == "onScrollChanged" }
+        assertThat(onScrollChanged.code.toString()).contains("frameScrollEvent.onScroll(l - oldl, t - oldt);")
+        assertThat(JavaScrollableTrait().hotMethods("MyScrollView")).containsExactly("onScrollChanged")
+    }
+
+    @Test
+    fun testKotlinScrollableTrait_withRecyclerView_shouldTakeDeltasFromOnScrolled() {
+        val type = KotlinTypeSpec.classBuilder("MyRecyclerView")
+        KotlinScrollableTrait().generateFor(type, FunSpec.builder("init"), KotlinClassName("foo", "R"),
+                "MyRecyclerView")
+
+        val functions = type.build().funSpecs
+        assertThat(functions.map { it.name }).doesNotContain("onScrollChanged")
+        val onScrolled = functions.single { it.name == "onScrolled" }
+        assertThat(onScrolled.parameters.map { it.name }).containsExactly("dx", "dy").inOrder()
+        assertThat(onScrolled.body.toString()).contains("super.onScrolled(dx, dy)")
+        assertThat(onScrolled.body.toString()).contains("frameScrollEvent?.onScroll(dx, dy)")
+        assertThat(KotlinScrollableTrait().hotMethods("MyRecyclerView")).containsExactly("onScrolled")
+    }
+
+    @Test
+    fun testKotlinScrollableTrait_withScrollView_shouldTakeDeltasFromOnScrollChanged() {
+        val type = KotlinTypeSpec.classBuilder("MyScrollView")
+        KotlinScrollableTrait().generateFor(type, FunSpec.builder("init"), KotlinClassName("foo", "R"),
+                "MyScrollView")
+
+        val functions = type.build().funSpecs
+        assertThat(functions.map { it.name }).doesNotContain("onScrolled")
+        val onScrollChanged = functions.single { it.name == "onScrollChanged" }
+        assertThat(onScrollChanged.body.toString()).contains("frameScrollEvent?.onScroll(l - oldl, t - oldt)")
+        assertThat(KotlinScrollableTrait().hotMethods("MyScrollView")).containsExactly("onScrollChanged")
+    }
+}
@@ -19,18 +19,26 @@ package com.uber.artist.traits
 import com.google.auto.service.AutoService
 import com.squareup.javapoet.AnnotationSpec
 import com.squareup.javapoet.ClassName
+import com.squareup.javapoet.CodeBlock
 import com.squareup.javapoet.FieldSpec
 import com.squareup.javapoet.MethodSpec
 import com.squareup.javapoet.TypeName
 import com.squareup.javapoet.TypeSpec
+import com.uber.artist.api.AttrsTrait
+import com.uber.artist.api.JavaAttrsTrait
 import com.uber.artist.api.JavaTrait
+import com.uber.artist.api.MemoizingTrait
 import com.uber.artist.api.Trait
+import com.uber.artist.api.TraitMemberCache
 import com.uber.artist.api.TypeNames
+import com.uber.artist.api.ViewAttr
 import javax.lang.model.element.Modifier
 
 /**
- * This [Trait] ports [FrameLayout]'s foreground functionality to other views. In order to use this, the module that
- * applies that [Artist] plugin must declare the ForegroundView styleable in res/values/attrs_foreground_view.xml.
+ * This [Trait] ports [FrameLayout]'s foreground functionality to other views. Its attributes are read from the view's
+ * shared TypedArray, see [AttrsTrait]. In order to use this, the module that applies that [Artist] plugin must declare
+ * the foregroundInsidePadding attribute, e.g. through the ForegroundView styleable in
+ * res/values/attrs_foreground_view.xml.
  *
  * <?xml version="1.0" encoding="utf-8"?>
  * <resources>
@@ -42,12 +50,57 @@ import javax.lang.model.element.Modifier
  * </resources>
  */
 @AutoService(JavaTrait::class)
-class JavaForegroundTrait : JavaTrait {
+class JavaForegroundTrait : JavaTrait, JavaAttrsTrait,
+    MemoizingTrait<TypeSpec.Builder, MethodSpec.Builder, ClassName> {
+
+  companion object {
+    private val FOREGROUND = ViewAttr("foreground", android = true)
+    private val FOREGROUND_GRAVITY = ViewAttr("foregroundGravity", android = true)
+    private val FOREGROUND_INSIDE_PADDING = ViewAttr("foregroundInsidePadding")
+  }
+
+  override fun attrs(sourceType: String): Set<ViewAttr> {
+    return if (sourceType.endsWith("Layout")) {
+      setOf(FOREGROUND, FOREGROUND_GRAVITY, FOREGROUND_INSIDE_PADDING)
+    } else {
+      setOf(FOREGROUND)
+    }
+  }
+
+  override fun attrsHook(
+      type: TypeSpec.Builder,
+      initMethod: MethodSpec.Builder,
+      rClass: ClassName,
+      sourceType: String): CodeBlock {
+    return CodeBlock.builder()
+        .addStatement("final \$T localForeground = a.getDrawable(\$N)", TypeNames.Android.Drawable, FOREGROUND.indexName)
+        .beginControlFlow("if (localForeground != null)")
+        .add("//noinspection AndroidLintNewApi\n")
+        .addStatement("setForeground(localForeground)")
+        .endControlFlow()
+        .apply {
+          if (sourceType.endsWith("Layout")) {
+            addStatement("foregroundGravity = a.getInt(\$N, foregroundGravity)", FOREGROUND_GRAVITY.indexName)
+            addStatement("foregroundInPadding = a.getBoolean(\$N, true)", FOREGROUND_INSIDE_PADDING.indexName)
+          }
+        }
+        .build()
+  }
+
   override fun generateFor(
       type: TypeSpec.Builder,
       initMethod: MethodSpec.Builder,
       rClass: ClassName,
       sourceType: String) {
+    generateFor(type, initMethod, rClass, sourceType, TraitMemberCache())
+  }
+
+  override fun generateFor(
+      type: TypeSpec.Builder,
+      initMethod: MethodSpec.Builder,
+      rClass: ClassName,
+      sourceType: String,
+      memberCache: TraitMemberCache) {
 
     val isLayout = sourceType.endsWith("Layout")
 
@@ -61,6 +114,11 @@ class JavaForegroundTrait : JavaTrait {
       type.addField(FieldSpec.builder(TypeNames.Android.Rect, "overlayBounds", Modifier.PRIVATE, Modifier.FINAL)
           .initializer("new \$T()", TypeNames.Android.Rect)
           .build())
+      // Scratch rect for reading the foreground's padding, so that changing the foreground or its gravity doesn't
+      // allocate.
+      type.addField(FieldSpec.builder(TypeNames.Android.Rect, "foregroundPadding", Modifier.PRIVATE, Modifier.FINAL)
+          .initializer("new \$T()", TypeNames.Android.Rect)
+          .build())
       type.addField(FieldSpec.builder(TypeName.BOOLEAN, "foregroundInPadding", Modifier.PRIVATE)
           .initializer("true")
           .build())
@@ -72,32 +130,12 @@ class JavaForegroundTrait : JavaTrait {
           .build())
     }
 
-    // Pull out the value
-    initMethod.addStatement(
-        "\$T foregroundTA = context.obtainStyledAttributes(attrs, \$T.styleable.ForegroundView)",
-        TypeNames.Android.TypedArray,
-        rClass)
-    initMethod.addStatement(
-        "final \$T localForeground = foregroundTA.getDrawable(\$T.styleable.ForegroundView_android_foreground)",
-        TypeNames.Android.Drawable,
-        rClass)
-
-    initMethod.beginControlFlow("if (localForeground != null)")
-    initMethod.addCode("//noinspection AndroidLintNewApi\n")
-    initMethod.addStatement("setForeground(localForeground)")
-    initMethod.endControlFlow()
-
-    if (isLayout) {
-      initMethod.addStatement(
-          "foregroundGravity = foregroundTA.getInt(\$T.styleable.ForegroundView_android_foregroundGravity, " +
-              "foregroundGravity)", rClass)
-      initMethod.addStatement(
-          "foregroundInPadding = foregroundTA.getBoolean(" +
-              "\$T.styleable.ForegroundView_foregroundInsidePadding, " +
-              "true)", rClass)
-    }
+    val isImageView = sourceType.endsWith("ImageView")
+    type.addMethods(memberCache.get(this, isLayout to isImageView) { createMethods(isLayout, isImageView) })
+  }
 
-    initMethod.addStatement("foregroundTA.recycle()")
+  private fun createMethods(isLayout: Boolean, isImageView: Boolean): List<MethodSpec> {
+    val methods = ArrayList<MethodSpec>()
 
     val onSizeChangedMethod = MethodSpec.methodBuilder("onSizeChanged")
         .addAnnotation(Override::class.java)
@@ -116,10 +154,10 @@ class JavaForegroundTrait : JavaTrait {
           .endControlFlow()
     }
 
-    type.addMethod(onSizeChangedMethod.build())
+    methods.add(onSizeChangedMethod.build())
 
-    if (sourceType.endsWith("ImageView")) {
-      type.addMethod(MethodSpec.methodBuilder("hasOverlappingRendering")
+    if (isImageView) {
+      methods.add(MethodSpec.methodBuilder("hasOverlappingRendering")
           .addAnnotation(Override::class.java)
           .addModifiers(Modifier.PUBLIC)
           .returns(TypeName.BOOLEAN)
@@ -128,7 +166,7 @@ class JavaForegroundTrait : JavaTrait {
     }
 
     if (isLayout) {
-      type.addMethod(MethodSpec.methodBuilder("getForegroundGravity")
+      methods.add(MethodSpec.methodBuilder("getForegroundGravity")
           .addJavadoc("""Describes how the foreground is positioned.
 
     @return foreground gravity.
@@ -140,7 +178,7 @@ class JavaForegroundTrait : JavaTrait {
           .addStatement("return foregroundGravity")
           .build())
 
-      type.addMethod(MethodSpec.methodBuilder("setForegroundGravity")
+      methods.add(MethodSpec.methodBuilder("setForegroundGravity")
           .addJavadoc("""Describes how the foreground is positioned. Defaults to START and TOP.
 
     @param foregroundGravity See {@link android.view.Gravity}
@@ -161,15 +199,14 @@ class JavaForegroundTrait : JavaTrait {
           .addStatement("this.foregroundGravity = foregroundGravity")
           .beginControlFlow("if (this.foregroundGravity == \$T.FILL && foreground != null)",
               TypeNames.Android.Gravity)
-          .addStatement("\$T padding = new \$T()", TypeNames.Android.Rect, TypeNames.Android.Rect)
-          .addStatement("foreground.getPadding(padding)")
+          .addStatement("foreground.getPadding(foregroundPadding)")
           .endControlFlow()
           .addStatement("requestLayout()")
           .endControlFlow()
           .build())
     }
 
-    type.addMethod(MethodSpec.methodBuilder("verifyDrawable")
+    methods.add(MethodSpec.methodBuilder("verifyDrawable")
         .addAnnotation(Override::class.java)
         .addModifiers(Modifier.PROTECTED)
         .returns(TypeName.BOOLEAN)
@@ -177,7 +214,7 @@ class JavaForegroundTrait : JavaTrait {
         .addStatement("return super.verifyDrawable(who) || (who == foreground)")
         .build())
 
-    type.addMethod(MethodSpec.methodBuilder("jumpDrawablesToCurrentState")
+    methods.add(MethodSpec.methodBuilder("jumpDrawablesToCurrentState")
         .addAnnotation(Override::class.java)
         .addModifiers(Modifier.PUBLIC)
         .addStatement("super.jumpDrawablesToCurrentState()")
@@ -186,7 +223,7 @@ class JavaForegroundTrait : JavaTrait {
         .endControlFlow()
         .build())
 
-    type.addMethod(MethodSpec.methodBuilder("drawableStateChanged")
+    methods.add(MethodSpec.methodBuilder("drawableStateChanged")
         .addAnnotation(Override::class.java)
         .addModifiers(Modifier.PROTECTED)
         .addStatement("super.drawableStateChanged()")
@@ -195,7 +232,7 @@ class JavaForegroundTrait : JavaTrait {
         .endControlFlow()
         .build())
 
-    type.addMethod(MethodSpec.methodBuilder("getForeground")
+    methods.add(MethodSpec.methodBuilder("getForeground")
         .addJavadoc("""Returns the drawable used as the foreground of this view. The
     foreground drawable, if non-null, is always drawn on top of the children.
 
@@ -241,8 +278,7 @@ class JavaForegroundTrait : JavaTrait {
 
     if (isLayout) {
       setForegroundMethod.beginControlFlow("if (foregroundGravity == \$T.FILL)", TypeNames.Android.Gravity)
-      setForegroundMethod.addStatement("\$T padding = new \$T()", TypeNames.Android.Rect, TypeNames.Android.Rect)
-      setForegroundMethod.addStatement("drawable.getPadding(padding)")
+      setForegroundMethod.addStatement("drawable.getPadding(foregroundPadding)")
       setForegroundMethod.endControlFlow()
     }
 
@@ -256,10 +292,10 @@ class JavaForegroundTrait : JavaTrait {
     setForegroundMethod.addStatement("invalidate()")
         .endControlFlow()
 
-    type.addMethod(setForegroundMethod.build())
+    methods.add(setForegroundMethod.build())
 
     if (isLayout) {
-      type.addMethod(MethodSpec.methodBuilder("onLayout")
+      methods.add(MethodSpec.methodBuilder("onLayout")
           .addAnnotation(Override::class.java)
           .addModifiers(Modifier.PROTECTED)
           .addParameter(TypeName.BOOLEAN, "changed")
@@ -304,9 +340,9 @@ class JavaForegroundTrait : JavaTrait {
       drawMethod.addStatement("foreground.draw(canvas)")
     }
     drawMethod.endControlFlow()
-    type.addMethod(drawMethod.build())
+    methods.add(drawMethod.build())
 
-    type.addMethod(MethodSpec.methodBuilder("drawableHotspotChanged")
+    methods.add(MethodSpec.methodBuilder("drawableHotspotChanged")
         .addAnnotation(AnnotationSpec.builder(TypeNames.Annotations.TargetApi)
             .addMember("value", "\$L", "android.os.Build.VERSION_CODES.LOLLIPOP")
             .build())
@@ -319,5 +355,6 @@ class JavaForegroundTrait : JavaTrait {
         .addStatement("foreground.setHotspot(x, y)")
         .endControlFlow()
         .build())
+    return methods
   }
 }
@@ -6,20 +6,31 @@ import com.squareup.javapoet.MethodSpec
 import com.squareup.javapoet.TypeName
 import com.squareup.javapoet.TypeSpec.Builder
 import com.uber.artist.api.JavaTrait
+import com.uber.artist.api.MemoizingTrait
+import com.uber.artist.api.TraitMemberCache
 import com.uber.artist.api.TypeNames
 import javax.lang.model.element.Modifier
 
 @AutoService(JavaTrait::class)
-class JavaVisibilityTrait : JavaTrait {
+class JavaVisibilityTrait : JavaTrait, MemoizingTrait<Builder, MethodSpec.Builder, ClassName> {
   override fun generateFor(
       type: Builder,
       initMethod: MethodSpec.Builder,
       rClass: ClassName,
       sourceType: String) {
+    generateFor(type, initMethod, rClass, sourceType, TraitMemberCache())
+  }
+
+  override fun generateFor(
+      type: Builder,
+      initMethod: MethodSpec.Builder,
+      rClass: ClassName,
+      sourceType: String,
+      memberCache: TraitMemberCache) {
 
     // Visibility convenience methods
     arrayOf("visible", "invisible", "gone")
-        .forEach { type.addMethod(createVisibilityConvenienceMethod(it)) }
+        .forEach { type.addMethod(memberCache.get(this, it) { createVisibilityConvenienceMethod(it) }) }
   }
 
   private fun createVisibilityConvenienceMethod(type: String): MethodSpec {
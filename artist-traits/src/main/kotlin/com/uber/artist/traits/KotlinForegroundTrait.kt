@@ -20,19 +20,27 @@ import com.google.auto.service.AutoService
 import com.squareup.kotlinpoet.AnnotationSpec
 import com.squareup.kotlinpoet.BOOLEAN
 import com.squareup.kotlinpoet.ClassName
+import com.squareup.kotlinpoet.CodeBlock
 import com.squareup.kotlinpoet.FLOAT
 import com.squareup.kotlinpoet.FunSpec
 import com.squareup.kotlinpoet.INT
 import com.squareup.kotlinpoet.KModifier
 import com.squareup.kotlinpoet.PropertySpec
 import com.squareup.kotlinpoet.TypeSpec
+import com.uber.artist.api.AttrsTrait
+import com.uber.artist.api.KotlinAttrsTrait
 import com.uber.artist.api.KotlinTrait
 import com.uber.artist.api.KotlinTypeNames
+import com.uber.artist.api.MemoizingTrait
 import com.uber.artist.api.Trait
+import com.uber.artist.api.TraitMemberCache
+import com.uber.artist.api.ViewAttr
 
 /**
- * This [Trait] ports [FrameLayout]'s foreground functionality to other views. In order to use this, the module that
- * applies that [Artist] plugin must declare the ForegroundView styleable in res/values/attrs_foreground_view.xml.
+ * This [Trait] ports [FrameLayout]'s foreground functionality to other views. Its attributes are read from the view's
+ * shared TypedArray, see [AttrsTrait]. In order to use this, the module that applies that [Artist] plugin must declare
+ * the foregroundInsidePadding attribute, e.g. through the ForegroundView styleable in
+ * res/values/attrs_foreground_view.xml.
  *
  * <?xml version="1.0" encoding="utf-8"?>
  * <resources>
@@ -44,12 +52,56 @@ import com.uber.artist.api.Trait
  * </resources>
  */
 @AutoService(KotlinTrait::class)
-class KotlinForegroundTrait : KotlinTrait {
+class KotlinForegroundTrait : KotlinTrait, KotlinAttrsTrait,
+    MemoizingTrait<TypeSpec.Builder, FunSpec.Builder, ClassName> {
+
+  companion object {
+    private val FOREGROUND = ViewAttr("foreground", android = true)
+    private val FOREGROUND_GRAVITY = ViewAttr("foregroundGravity", android = true)
+    private val FOREGROUND_INSIDE_PADDING = ViewAttr("foregroundInsidePadding")
+  }
+
+  override fun attrs(sourceType: String): Set<ViewAttr> {
+    return if (sourceType.endsWith("Layout")) {
+      setOf(FOREGROUND, FOREGROUND_GRAVITY, FOREGROUND_INSIDE_PADDING)
+    } else {
+      setOf(FOREGROUND)
+    }
+  }
+
+  override fun attrsHook(
+      type: TypeSpec.Builder,
+      initMethod: FunSpec.Builder,
+      rClass: ClassName,
+      sourceType: String): CodeBlock {
+    return CodeBlock.builder()
+        .beginControlFlow("a.getDrawable(%L)?.let", FOREGROUND.indexName)
+        .add("//noinspection AndroidLintNewApi\n")
+        .addStatement("setForeground(it)")
+        .endControlFlow()
+        .apply {
+          if (sourceType.endsWith("Layout")) {
+            addStatement("foregroundGravity = a.getInt(%L, foregroundGravity)", FOREGROUND_GRAVITY.indexName)
+            addStatement("foregroundInPadding = a.getBoolean(%L, true)", FOREGROUND_INSIDE_PADDING.indexName)
+          }
+        }
+        .build()
+  }
+
   override fun generateFor(
       type: TypeSpec.Builder,
       initMethod: FunSpec.Builder,
       rClass: ClassName,
       sourceType: String) {
+    generateFor(type, initMethod, rClass, sourceType, TraitMemberCache())
+  }
+
+  override fun generateFor(
+      type: TypeSpec.Builder,
+      initMethod: FunSpec.Builder,
+      rClass: ClassName,
+      sourceType: String,
+      memberCache: TraitMemberCache) {
 
     val isLayout = sourceType.endsWith("Layout")
 
@@ -66,6 +118,11 @@ class KotlinForegroundTrait : KotlinTrait {
       type.addProperty(PropertySpec.builder("overlayBounds", KotlinTypeNames.Android.Rect, KModifier.PRIVATE, KModifier.FINAL)
           .initializer("%T()", KotlinTypeNames.Android.Rect)
           .build())
+      // Scratch rect for reading the foreground's padding, so that changing the foreground or its gravity doesn't
+      // allocate.
+      type.addProperty(PropertySpec.builder("foregroundPadding", KotlinTypeNames.Android.Rect, KModifier.PRIVATE, KModifier.FINAL)
+          .initializer("%T()", KotlinTypeNames.Android.Rect)
+          .build())
       type.addProperty(PropertySpec.builder("foregroundInPadding", BOOLEAN, KModifier.PRIVATE)
           .initializer("true")
           .mutable()
@@ -80,23 +137,12 @@ class KotlinForegroundTrait : KotlinTrait {
           .build())
     }
 
-    // Pull out the value
-    initMethod.apply {
-      addStatement("val foregroundTA = context.obtainStyledAttributes(attrs, %T.styleable.ForegroundView)", rClass)
-      beginControlFlow("foregroundTA.getDrawable(%T.styleable.ForegroundView_android_foreground)?.let", rClass)
-      addCode("//noinspection AndroidLintNewApi\n")
-      addStatement("setForeground(it)")
-      endControlFlow()
-
-      if (isLayout) {
-        addStatement(
-            "foregroundGravity = foregroundTA.getInt(%T.styleable.ForegroundView_android_foregroundGravity, foregroundGravity)", rClass)
-        addStatement(
-            "foregroundInPadding = foregroundTA.getBoolean(%T.styleable.ForegroundView_foregroundInsidePadding, true)", rClass)
-      }
-
-      addStatement("foregroundTA.recycle()")
-    }
+    val isImageView = sourceType.endsWith("ImageView")
+    type.addFunctions(memberCache.get(this, isLayout to isImageView) { createFunctions(isLayout, isImageView) })
+  }
+
+  private fun createFunctions(isLayout: Boolean, isImageView: Boolean): List<FunSpec> {
+    val methods = ArrayList<FunSpec>()
 
     val onSizeChangedMethod = FunSpec.builder("onSizeChanged")
         .addModifiers(KModifier.PROTECTED, KModifier.OPEN, KModifier.OVERRIDE)
@@ -112,10 +158,10 @@ class KotlinForegroundTrait : KotlinTrait {
       onSizeChangedMethod.addStatement("foreground?.setBounds(0, 0, w, h)")
     }
 
-    type.addFunction(onSizeChangedMethod.build())
+    methods.add(onSizeChangedMethod.build())
 
-    if (sourceType.endsWith("ImageView")) {
-      type.addFunction(FunSpec.builder("hasOverlappingRendering")
+    if (isImageView) {
+      methods.add(FunSpec.builder("hasOverlappingRendering")
           .addModifiers(KModifier.OPEN, KModifier.OVERRIDE)
           .returns(BOOLEAN)
           .addStatement("return false")
@@ -123,7 +169,7 @@ class KotlinForegroundTrait : KotlinTrait {
     }
 
     if (isLayout) {
-      type.addFunction(FunSpec.builder("getForegroundGravity")
+      methods.add(FunSpec.builder("getForegroundGravity")
           .addKdoc("""Describes how the foreground is positioned.
 
     @return foreground gravity.
@@ -135,7 +181,7 @@ class KotlinForegroundTrait : KotlinTrait {
           .addStatement("return foregroundGravity")
           .build())
 
-      type.addFunction(FunSpec.builder("setForegroundGravity")
+      methods.add(FunSpec.builder("setForegroundGravity")
           .addKdoc("""Describes how the foreground is positioned. Defaults to START and TOP.
 
     @param foregroundGravity See {@link android.view.Gravity}
@@ -155,28 +201,27 @@ class KotlinForegroundTrait : KotlinTrait {
           .endControlFlow()
           .beginControlFlow("if (this.foregroundGravity == %T.FILL && foreground != null)",
               KotlinTypeNames.Android.Gravity)
-          .addStatement("val padding = %T()", KotlinTypeNames.Android.Rect)
-          .addStatement("foreground?.getPadding(padding)")
+          .addStatement("foreground?.getPadding(foregroundPadding)")
           .endControlFlow()
           .addStatement("requestLayout()")
           .endControlFlow()
           .build())
     }
 
-    type.addFunction(FunSpec.builder("verifyDrawable")
+    methods.add(FunSpec.builder("verifyDrawable")
         .addModifiers(KModifier.PROTECTED, KModifier.OPEN, KModifier.OVERRIDE)
         .returns(BOOLEAN)
         .addParameter("who", KotlinTypeNames.Android.Drawable)
         .addStatement("return super.verifyDrawable(who) || (who == foreground)")
         .build())
 
-    type.addFunction(FunSpec.builder("jumpDrawablesToCurrentState")
+    methods.add(FunSpec.builder("jumpDrawablesToCurrentState")
         .addModifiers(KModifier.OPEN, KModifier.OVERRIDE)
         .addStatement("super.jumpDrawablesToCurrentState()")
         .addStatement("foreground?.jumpToCurrentState()")
         .build())
 
-    type.addFunction(FunSpec.builder("drawableStateChanged")
+    methods.add(FunSpec.builder("drawableStateChanged")
         .addModifiers(KModifier.PROTECTED, KModifier.OPEN, KModifier.OVERRIDE)
         .addStatement("super.drawableStateChanged()")
         .beginControlFlow("if (foreground?.isStateful() ?: false)")
@@ -184,7 +229,7 @@ class KotlinForegroundTrait : KotlinTrait {
         .endControlFlow()
         .build())
 
-    type.addFunction(FunSpec.builder("getForeground")
+    methods.add(FunSpec.builder("getForeground")
         .addKdoc("""Returns the drawable used as the foreground of this view. The
     foreground drawable, if non-null, is always drawn on top of the children.
 
@@ -230,8 +275,7 @@ class KotlinForegroundTrait : KotlinTrait {
 
     if (isLayout) {
       setForegroundMethod.beginControlFlow("if (foregroundGravity == %T.FILL)", KotlinTypeNames.Android.Gravity)
-      setForegroundMethod.addStatement("val padding = %T()", KotlinTypeNames.Android.Rect)
-      setForegroundMethod.addStatement("drawable.getPadding(padding)")
+      setForegroundMethod.addStatement("drawable.getPadding(foregroundPadding)")
       setForegroundMethod.endControlFlow()
     }
 
@@ -245,10 +289,10 @@ class KotlinForegroundTrait : KotlinTrait {
     setForegroundMethod.addStatement("invalidate()")
         .endControlFlow()
 
-    type.addFunction(setForegroundMethod.build())
+    methods.add(setForegroundMethod.build())
 
     if (isLayout) {
-      type.addFunction(FunSpec.builder("onLayout")
+      methods.add(FunSpec.builder("onLayout")
           .addModifiers(KModifier.PROTECTED, KModifier.OPEN, KModifier.OVERRIDE)
           .addParameter("changed", BOOLEAN)
           .addParameter("left", INT)
@@ -292,9 +336,9 @@ class KotlinForegroundTrait : KotlinTrait {
     } else {
       drawMethod.addStatement("foreground?.draw(canvas)")
     }
-    type.addFunction(drawMethod.build())
+    methods.add(drawMethod.build())
 
-    type.addFunction(FunSpec.builder("drawableHotspotChanged")
+    methods.add(FunSpec.builder("drawableHotspotChanged")
         .addAnnotation(AnnotationSpec.builder(KotlinTypeNames.Annotations.TargetApi)
             .addMember("%T.VERSION_CODES.LOLLIPOP", ClassName("android.os", "Build"))
             .build())
@@ -304,5 +348,6 @@ class KotlinForegroundTrait : KotlinTrait {
         .addStatement("super.drawableHotspotChanged(x, y)")
         .addStatement("foreground?.setHotspot(x, y)")
         .build())
+    return methods
   }
 }
@@ -24,18 +24,29 @@ import com.squareup.kotlinpoet.KModifier
 import com.squareup.kotlinpoet.TypeSpec
 import com.uber.artist.api.KotlinTrait
 import com.uber.artist.api.KotlinTypeNames
+import com.uber.artist.api.MemoizingTrait
+import com.uber.artist.api.TraitMemberCache
 
 @AutoService(KotlinTrait::class)
-class KotlinVisibilityTrait : KotlinTrait {
+class KotlinVisibilityTrait : KotlinTrait, MemoizingTrait<TypeSpec.Builder, FunSpec.Builder, ClassName> {
   override fun generateFor(
       type: TypeSpec.Builder,
       initMethod: FunSpec.Builder,
       rClass: ClassName,
       sourceType: String) {
+    generateFor(type, initMethod, rClass, sourceType, TraitMemberCache())
+  }
+
+  override fun generateFor(
+      type: TypeSpec.Builder,
+      initMethod: FunSpec.Builder,
+      rClass: ClassName,
+      sourceType: String,
+      memberCache: TraitMemberCache) {
 
     // Visibility convenience methods
     arrayOf("visible", "invisible", "gone")
-        .forEach { type.addFunction(createVisibilityConvenienceMethod(it)) }
+        .forEach { type.addFunction(memberCache.get(this, it) { createVisibilityConvenienceMethod(it) }) }
   }
 
   private fun createVisibilityConvenienceMethod(type: String): FunSpec {
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist.traits
+
+import com.google.common.truth.Truth.assertWithMessage
+import com.squareup.javapoet.ClassName
+import com.squareup.javapoet.MethodSpec
+import com.squareup.javapoet.TypeSpec
+import com.squareup.kotlinpoet.FunSpec
+import org.junit.Test
+import com.squareup.kotlinpoet.ClassName as KotlinClassName
+import com.squareup.kotlinpoet.TypeSpec as KotlinTypeSpec
+
+class ForegroundTraitTest {
+
+    companion object {
+        val HOT_METHODS = mapOf(
+                "MyLinearLayout" to listOf("draw", "onLayout", "onSizeChanged", "setForeground", "setForegroundGravity"),
+                "MyImageView" to listOf("draw", "onSizeChanged", "setForeground"))
+        val KOTLIN_CONSTRUCTOR_CALL = Regex("(^|[^.\\w])[A-Z]\\w*\\(")
+    }
+
+    @Test
+    fun testJavaForegroundTrait_shouldNotAllocateInHotMethods() {
+        HOT_METHODS.forEach { (sourceType, hotMethods) ->
+            val type = TypeSpec.classBuilder(sourceType)
+            JavaForegroundTrait().generateFor(type, MethodSpec.methodBuilder("init"), ClassName.get("foo", "R"), sourceType)
+
+            val methods = type.build().methodSpecs
+            hotMethods.forEach { hotMethod ->
+                val method = methods.firstOrNull { it.name == hotMethod }
+                assertWithMessage("$sourceType.$hotMethod is not generated").that(method).isNotNull()
+                assertWithMessage("$sourceType.$hotMethod allocates").that(method!!.code.toString()).doesNotContain("new ")
+            }
+        }
+    }
+
+    @Test
+    fun testKotlinForegroundTrait_shouldNotAllocateInHotMethods() {
+        HOT_METHODS.forEach { (sourceType, hotMethods) ->
+            val type = KotlinTypeSpec.classBuilder(sourceType)
+            KotlinForegroundTrait().generateFor(type, FunSpec.builder("init"), KotlinClassName("foo", "R"), sourceType)
+
+            val functions = type.build().funSpecs
+            hotMethods.forEach { hotMethod ->
+                val function = functions.firstOrNull { it.name == hotMethod }
+                assertWithMessage("$sourceType.$hotMethod is not generated").that(function).isNotNull()
+                assertWithMessage("$sourceType.$hotMethod allocates")
+                        .that(KOTLIN_CONSTRUCTOR_CALL.containsMatchIn(function!!.body.toString()))
+                        .isFalse()
+            }
+        }
+    }
+}
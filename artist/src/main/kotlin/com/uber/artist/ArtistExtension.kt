@@ -16,6 +16,8 @@
 
 package com.uber.artist
 
+import java.io.File
+
 class ArtistExtension {
 
   /**
@@ -47,4 +49,46 @@ class ArtistExtension {
    * Optional setting to control whether the source is generated in Java or Kotlin. Defaults to false for Java.
    */
   var generateKotlin: Boolean = false
+
+  /**
+   * Optional JSON manifest declaring stencils and global traits in addition to those of the stencil providers, see
+   * [StencilManifest]. Changing the manifest only reruns generation, without changing the buildscript classpath.
+   */
+  var stencilManifest: File? = null
+
+  /**
+   * Optional number of threads used to generate views concurrently. Defaults to 1, which generates one view at a time.
+   * Values above 1 require traits and stencil hooks to be thread-safe, see [com.uber.artist.api.Trait.generateFor].
+   */
+  var parallelism: Int = 1
+
+  /**
+   * Optional setting to control whether variants with the same view configuration share a single generation task and
+   * output directory instead of each generating the same views. Defaults to true.
+   */
+  var shareGeneratedViews: Boolean = true
+
+  /**
+   * Optional setting to time every phase and trait invocation of generating each view. The timings are written as JSON
+   * and CSV reports to build/reports/artist/<task name>. Defaults to false.
+   */
+  var profileGeneration: Boolean = false
+
+  /**
+   * Optional setting to check the frame-critical methods of generated views, such as draw or onTouchEvent, for
+   * allocations. OFF, WARN to log them or FAIL to fail the build. Defaults to OFF.
+   */
+  var allocationLint: AllocationLint.Mode = AllocationLint.Mode.OFF
+
+  /**
+   * Optional setting to generate a LayoutInflater.Factory2 named <viewNamePrefix>LayoutInflaterFactory, which creates
+   * the generated views from layouts without reflection. Defaults to false.
+   */
+  var generateInflaterFactory: Boolean = false
+
+  /**
+   * Optional setting to write ART baseline profile rules for the generated views to
+   * build/generated/artist/baselineProfile/<task name>/baseline-prof.txt. Defaults to false.
+   */
+  var generateBaselineProfile: Boolean = false
 }
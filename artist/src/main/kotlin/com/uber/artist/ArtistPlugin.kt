@@ -22,10 +22,16 @@ import com.android.build.gradle.AppPlugin
 import com.android.build.gradle.LibraryExtension
 import com.android.build.gradle.LibraryPlugin
 import com.android.build.gradle.api.BaseVariant
+import com.uber.artist.internal.util.resolveProviderClasspath
+import com.uber.artist.internal.util.resolveSharedOutputDir
 import com.uber.artist.internal.util.resolveVariantOutputDir
 import org.gradle.api.DomainObjectSet
 import org.gradle.api.Plugin
 import org.gradle.api.Project
+import org.gradle.api.artifacts.Configuration
+import org.gradle.api.tasks.TaskProvider
+import java.io.File
+import java.util.concurrent.Callable
 
 class ArtistPlugin : Plugin<Project> {
 
@@ -37,48 +43,130 @@ class ArtistPlugin : Plugin<Project> {
 
   override fun apply(project: Project) {
     project.extensions.add(ARTIST, artistExtension)
-    project.afterEvaluate {
-      project.plugins.all {
-        when (it) {
-          is AppPlugin -> with(project.extensions.getByType(AppExtension::class.java)) {
-            configureAndroid(project, applicationVariants)
-          }
-          is LibraryPlugin -> with(project.extensions.getByType(LibraryExtension::class.java)) {
-            configureAndroid(project, libraryVariants)
-          }
-        }
-      }
+    val artistConfiguration = project.configurations.create(ARTIST) {
+      it.description = "Stencil and trait providers that views are generated from in a class loader of their own."
+      it.isVisible = false
+      it.isCanBeConsumed = false
+    }
+    project.plugins.withType(AppPlugin::class.java) {
+      configureAndroid(project, artistConfiguration,
+          project.extensions.getByType(AppExtension::class.java).applicationVariants)
+    }
+    project.plugins.withType(LibraryPlugin::class.java) {
+      configureAndroid(project, artistConfiguration,
+          project.extensions.getByType(LibraryExtension::class.java).libraryVariants)
     }
   }
 
   private fun <T : BaseVariant> configureAndroid(
       project: Project,
+      artistConfiguration: Configuration,
       variants: DomainObjectSet<T>) {
+    val providerClasspath = resolveProviderClasspath(project, ArtistPlugin::class.java.classLoader)
+    val sharedTasks = HashMap<ViewConfiguration, TaskProvider<ArtistTask>>()
+    // Kotlin compile tasks created after their variant depend on its Artist task through this single listener.
+    val artistTasksByKotlinCompileTask = HashMap<String, TaskProvider<ArtistTask>>()
+    project.tasks.configureEach { task ->
+      artistTasksByKotlinCompileTask[task.name]?.let { task.dependsOn(kotlinCompileDependency(it)) }
+    }
     variants.all { variant ->
-      val outputDir = resolveVariantOutputDir(project, variant, ARTIST)
-      val artistTask = project.tasks.create(
-          "generate${variant.name.capitalize()}Views", ArtistTask::class.java)
-          .apply {
-            group = ARTIST
-            outputDirectory = outputDir
-            description = "Generate ${variant.name} base views."
-            viewPackageName = artistExtension.viewPackageName ?: variant.applicationId
-            rPackageName = artistExtension.rPackageName ?: (artistExtension.viewPackageName ?: variant.applicationId)
-            superinterfaceClassName = artistExtension.interfaceClassName
-            viewNamePrefix = artistExtension.viewNamePrefix
-            formatSource = artistExtension.formatSource
-            generateKotlin = artistExtension.generateKotlin
-          }
-      artistTask.outputs.dir(outputDir)
+      val taskName = "generate${variant.name.capitalize()}Views"
 
-      if (artistExtension.generateKotlin) {
-        val kotlinCompileTask = project.tasks.findByName("compile${variant.name.capitalize()}Kotlin")
-        if (kotlinCompileTask != null) {
-          kotlinCompileTask.dependsOn(artistTask)
+      // AGP creates variants once the build script was evaluated, so the extension is final by now and variants whose
+      // views would be identical can share a single task and output directory.
+      val configuration = ViewConfiguration(
+          artistExtension.viewPackageName ?: variant.applicationId,
+          artistExtension.rPackageName ?: (artistExtension.viewPackageName ?: variant.applicationId),
+          artistExtension.interfaceClassName,
+          artistExtension.viewNamePrefix,
+          artistExtension.formatSource,
+          artistExtension.generateKotlin)
+      val sharedTask = if (artistExtension.shareGeneratedViews) sharedTasks[configuration] else null
+      if (sharedTask != null) {
+        project.tasks.register(taskName) {
+          it.group = ARTIST
+          it.description = "Generate ${variant.name} base views."
+          it.dependsOn(sharedTask)
         }
+        registerGeneratingTask(project, variant, sharedTask, artistTasksByKotlinCompileTask)
+        return@all
+      }
+
+      val outputDir = if (artistExtension.shareGeneratedViews) {
+        resolveSharedOutputDir(project, ARTIST, configuration.toString())
+      } else {
+        resolveVariantOutputDir(project, variant, ARTIST)
       }
+      val artistTask = project.tasks.register(taskName, ArtistTask::class.java) {
+        it.group = ARTIST
+        it.description = "Generate ${variant.name} base views."
+        it.outputDirectory.set(outputDir)
+        it.providerClasspath.from(providerClasspath)
+        it.isolatedProviderClasspath.from(artistConfiguration)
+        it.viewPackageName.set(project.provider { artistExtension.viewPackageName ?: variant.applicationId })
+        it.rPackageName.set(project.provider {
+          artistExtension.rPackageName ?: (artistExtension.viewPackageName ?: variant.applicationId)
+        })
+        it.superinterfaceClassName.set(project.provider { artistExtension.interfaceClassName })
+        it.viewNamePrefix.set(project.provider { artistExtension.viewNamePrefix })
+        it.formatSource.set(project.provider { artistExtension.formatSource })
+        it.generateKotlin.set(project.provider { artistExtension.generateKotlin })
+        it.stencilManifest.set(project.layout.file(project.provider { artistExtension.stencilManifest }))
+        it.allocationLint.set(project.provider { artistExtension.allocationLint })
+        it.generateInflaterFactory.set(project.provider { artistExtension.generateInflaterFactory })
+        it.baselineProfile.set(project.layout.file(project.provider {
+          if (artistExtension.generateBaselineProfile) {
+            File(project.buildDir, "generated/artist/baselineProfile/$taskName/baseline-prof.txt")
+          } else {
+            null
+          }
+        }))
+        it.parallelism.set(project.provider { artistExtension.parallelism })
+        it.profileGeneration.set(project.provider { artistExtension.profileGeneration })
+      }
+      if (artistExtension.shareGeneratedViews) {
+        sharedTasks[configuration] = artistTask
+      }
+      registerGeneratingTask(project, variant, artistTask, artistTasksByKotlinCompileTask)
+    }
+  }
 
-      variant.registerJavaGeneratingTask(artistTask, artistTask.outputDirectory)
+  /**
+   * Registers [artistTask] as source generating task of [variant].
+   *
+   * AGP 3.2's `registerJavaGeneratingTask` only accepts a task instance, so the Artist task is realized as soon as the
+   * variant is configured, alongside the tasks AGP 3.2 creates eagerly for it. Its inputs are still only read when it
+   * runs, and wiring it to the Kotlin compile task doesn't realize that task.
+   */
+  private fun registerGeneratingTask(
+      project: Project,
+      variant: BaseVariant,
+      artistTask: TaskProvider<ArtistTask>,
+      artistTasksByKotlinCompileTask: MutableMap<String, TaskProvider<ArtistTask>>) {
+    val kotlinCompileTaskName = "compile${variant.name.capitalize()}Kotlin"
+    if (kotlinCompileTaskName in project.tasks.names) {
+      project.tasks.named(kotlinCompileTaskName).configure { it.dependsOn(kotlinCompileDependency(artistTask)) }
+    } else {
+      artistTasksByKotlinCompileTask[kotlinCompileTaskName] = artistTask
     }
+
+    val task = artistTask.get()
+    variant.registerJavaGeneratingTask(task, task.outputDirectory.get().asFile)
   }
+
+  private fun kotlinCompileDependency(artistTask: TaskProvider<ArtistTask>): Callable<List<TaskProvider<ArtistTask>>> {
+    return Callable { if (artistExtension.generateKotlin) listOf(artistTask) else emptyList() }
+  }
+
+  /**
+   * The settings that decide the content of the generated views. Variants with equal configurations generate the same
+   * views.
+   */
+  private data class ViewConfiguration(
+      val viewPackageName: String,
+      val rPackageName: String,
+      val interfaceClassName: String?,
+      val viewNamePrefix: String,
+      val formatSource: Boolean,
+      val generateKotlin: Boolean)
 }
@@ -17,44 +17,161 @@
 package com.uber.artist
 
 import org.gradle.api.DefaultTask
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.api.provider.Property
+import org.gradle.api.tasks.CacheableTask
+import org.gradle.api.tasks.Classpath
 import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.InputFile
+import org.gradle.api.tasks.Internal
+import org.gradle.api.tasks.LocalState
+import org.gradle.api.tasks.Optional
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.OutputFile
+import org.gradle.api.tasks.PathSensitive
+import org.gradle.api.tasks.PathSensitivity
 import org.gradle.api.tasks.TaskAction
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs
+import org.gradle.workers.IsolationMode
+import org.gradle.workers.WorkerExecutor
 import java.io.File
+import javax.inject.Inject
 
-open class ArtistTask : DefaultTask() {
+@CacheableTask
+open class ArtistTask @Inject constructor(private val workerExecutor: WorkerExecutor) : DefaultTask() {
+
+  @OutputDirectory
+  val outputDirectory: DirectoryProperty = project.layout.directoryProperty()
+
+  /**
+   * The buildscript classpath Artist and the stencils and traits on it are loaded from. It decides what gets generated,
+   * so it is an input of the task.
+   */
+  @Classpath
+  val providerClasspath: ConfigurableFileCollection = project.files()
+
+  /**
+   * Stencils and traits declared in the `artist` configuration. When there are any, generation runs in a class loader
+   * of its own, built from them and the [providerClasspath], so they are never loaded by the Gradle daemon's class
+   * loaders.
+   */
+  @Classpath
+  val isolatedProviderClasspath: ConfigurableFileCollection = project.files()
 
   @Input
-  lateinit var outputDirectory: File
+  val viewPackageName: Property<String> = project.objects.property(String::class.java)
 
   @Input
-  lateinit var viewPackageName: String
+  val rPackageName: Property<String> = project.objects.property(String::class.java)
 
   @Input
-  lateinit var rPackageName: String
+  @Optional
+  val superinterfaceClassName: Property<String> = project.objects.property(String::class.java)
 
   @Input
-  var superinterfaceClassName: String? = null
+  val viewNamePrefix: Property<String> = project.objects.property(String::class.java)
 
   @Input
-  var viewNamePrefix: String = ""
+  val formatSource: Property<Boolean> = project.objects.property(Boolean::class.javaObjectType)
 
   @Input
-  var formatSource: Boolean = true
+  val generateKotlin: Property<Boolean> = project.objects.property(Boolean::class.javaObjectType)
+
+  /**
+   * Stencils declared in a JSON manifest. Only its content decides what gets generated, not its location.
+   */
+  @InputFile
+  @Optional
+  @PathSensitive(PathSensitivity.NONE)
+  val stencilManifest: RegularFileProperty = project.layout.fileProperty()
 
+  /**
+   * Whether generated views are checked for allocations in frame-critical methods. It can fail the task, so it is an
+   * input.
+   */
   @Input
-  var generateKotlin: Boolean = false
+  val allocationLint: Property<AllocationLint.Mode> = project.objects.property(AllocationLint.Mode::class.java)
+
+  @Input
+  val generateInflaterFactory: Property<Boolean> = project.objects.property(Boolean::class.javaObjectType)
+
+  /**
+   * Where ART baseline profile rules for the generated views are written to, if set.
+   */
+  @OutputFile
+  @Optional
+  val baselineProfile: RegularFileProperty = project.layout.fileProperty()
+
+  @Internal
+  val parallelism: Property<Int> = project.objects.property(Int::class.javaObjectType)
+
+  /**
+   * Whether to time the generation of each view and write the timings to the [reportDirectory].
+   */
+  @Internal
+  val profileGeneration: Property<Boolean> = project.objects.property(Boolean::class.javaObjectType)
+
+  /**
+   * Where generation profiles are written to. Reports describe a single run, so they aren't outputs of the task.
+   */
+  @get:Internal
+  val reportDirectory: File
+    get() = File(project.buildDir, "reports/artist/$name")
+
+  /**
+   * Fingerprints of the generated views, used to only regenerate the views whose stencil, traits or settings changed.
+   */
+  @get:LocalState
+  val stateFile: File
+    get() = File(temporaryDir, "stencil-fingerprints.txt")
 
   @TaskAction
   fun execute(inputs: IncrementalTaskInputs) {
-    generateViewsFor(
-        outputDirectory,
-        viewPackageName,
-        rPackageName,
-        superinterfaceClassName,
-        viewNamePrefix,
-        formatSource,
-        generateKotlin
-    )
+    // Gradle can't tell which views are affected by a change, so the per-stencil fingerprints in the state file decide
+    // that. They only cover the code sources of the stencils and traits though, so the state is dropped, regenerating
+    // all views, when anything else could have changed: on non-incremental runs (changed settings, changed outputs or
+    // --rerun-tasks) and when anything on the provider classpath changed.
+    if (!inputs.isIncremental || providerClasspathChanged(inputs)) {
+      stateFile.delete()
+    }
+    workerExecutor.submit(ArtistWorker::class.java) { config ->
+      // Providers on the buildscript classpath are already loaded by the daemon, isolating them would only lose the
+      // services ArtistServiceRegistry keeps across builds. Only providers of the artist configuration are isolated.
+      if (isolatedProviderClasspath.isEmpty) {
+        config.isolationMode = IsolationMode.NONE
+      } else {
+        config.isolationMode = IsolationMode.CLASSLOADER
+        config.classpath(isolatedProviderClasspath + providerClasspath)
+      }
+      config.displayName = "Generate views in ${outputDirectory.get().asFile}"
+      // Worker parameters can't be null, a missing interface, manifest or profile is passed as an empty name.
+      config.params(
+          outputDirectory.get().asFile,
+          viewPackageName.get(),
+          rPackageName.get(),
+          superinterfaceClassName.getOrElse(""),
+          viewNamePrefix.get(),
+          formatSource.get(),
+          generateKotlin.get(),
+          parallelism.get(),
+          stateFile,
+          profileGeneration.get(),
+          reportDirectory,
+          stencilManifest.orNull?.asFile?.path ?: "",
+          allocationLint.get(),
+          generateInflaterFactory.get(),
+          baselineProfile.orNull?.asFile?.path ?: "")
+    }
+  }
+
+  private fun providerClasspathChanged(inputs: IncrementalTaskInputs): Boolean {
+    val classpath = providerClasspath.files + isolatedProviderClasspath.files
+    var changed = false
+    val onChange = { file: File -> changed = changed || classpath.any { file.startsWith(it) } }
+    inputs.outOfDate { onChange(it.file) }
+    inputs.removed { onChange(it.file) }
+    return changed
   }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2018. Uber Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.uber.artist
+
+import org.gradle.api.logging.Logging
+import java.io.File
+import java.util.concurrent.TimeUnit
+import javax.inject.Inject
+
+/**
+ * Generates the views of an [ArtistTask] as a Gradle worker. When providers are declared in the `artist` configuration,
+ * the worker runs in a class loader built from them, so stencils and traits are loaded from there rather than from the
+ * daemon's buildscript class loader.
+ */
+class ArtistWorker @Inject constructor(
+    private val outputDirectory: File,
+    private val viewPackageName: String,
+    private val rPackageName: String,
+    private val superinterfaceClassName: String,
+    private val viewNamePrefix: String,
+    private val formatSource: Boolean,
+    private val generateKotlin: Boolean,
+    private val parallelism: Int,
+    private val stateFile: File,
+    private val profileGeneration: Boolean,
+    private val reportDirectory: File,
+    private val stencilManifest: String,
+    private val allocationLint: AllocationLint.Mode,
+    private val generateInflaterFactory: Boolean,
+    private val baselineProfile: String
+) : Runnable {
+
+  private val logger = Logging.getLogger(ArtistWorker::class.java)
+
+  override fun run() {
+    // Stencils and traits are found through ServiceLoader, which looks them up in the context class loader.
+    val thread = Thread.currentThread()
+    val contextClassLoader = thread.contextClassLoader
+    thread.contextClassLoader = ArtistWorker::class.java.classLoader
+    val result = try {
+      generateViewsFor(
+          outputDirectory,
+          viewPackageName,
+          rPackageName,
+          if (superinterfaceClassName.isEmpty()) null else superinterfaceClassName,
+          viewNamePrefix,
+          formatSource,
+          generateKotlin,
+          parallelism,
+          stateFile,
+          profileGeneration,
+          if (stencilManifest.isEmpty()) null else File(stencilManifest),
+          allocationLint,
+          generateInflaterFactory,
+          if (baselineProfile.isEmpty()) null else File(baselineProfile),
+          // The output directory belongs to the task, so views of stencils removed while the state was dropped can be
+          // deleted along with anything else that isn't generated.
+          ownsOutputDir = true
+      )
+    } finally {
+      thread.contextClassLoader = contextClassLoader
+    }
+
+    logger.info("Wrote {} generated files, {} were unchanged", result.writtenFiles, result.skippedFiles)
+    val formattingTimes = result.formattingTimes
+    if (formattingTimes.isNotEmpty()) {
+      logger.info("Formatted {} files in {} ms", formattingTimes.size,
+          TimeUnit.NANOSECONDS.toMillis(formattingTimes.values.sum()))
+      formattingTimes.entries
+          .sortedByDescending { it.value }
+          .forEach { logger.debug("Formatted {} in {} ms", it.key, TimeUnit.NANOSECONDS.toMillis(it.value)) }
+    }
+
+    result.allocationFindings.forEach { logger.warn("Allocation in frame-critical method {}", it) }
+
+    if (profileGeneration) {
+      writeProfile(result.profile)
+    }
+  }
+
+  private fun writeProfile(profile: GenerationProfiler) {
+    val jsonReport = File(reportDirectory, "profile.json")
+    profile.writeJsonTo(jsonReport)
+    profile.writeCsvTo(File(reportDirectory, "profile.csv"))
+    logger.lifecycle("Artist generation profile written to {}", jsonReport)
+
+    profile.timings()
+        .groupBy { it.phase }
+        .mapValues { (_, timings) -> timings.map { it.nanos }.sum() }
+        .entries
+        .sortedByDescending { it.value }
+        .take(10)
+        .forEach { logger.info("{}: {} ms", it.key, TimeUnit.NANOSECONDS.toMillis(it.value)) }
+  }
+}
@@ -17,11 +17,40 @@
 package com.uber.artist.internal.util
 
 import com.android.build.gradle.api.BaseVariant
+import org.gradle.api.DefaultTask
 import org.gradle.api.Project
+import org.gradle.api.file.FileCollection
 import java.io.File
+import java.net.URLClassLoader
+import java.security.MessageDigest
 
 fun resolveVariantOutputDir(project: Project, variant: BaseVariant, plugin: String): File = project.file(
     "${project.projectDir}/build/generated/source/$plugin/${variant.flavorName}/${variant.buildType.name}".sanitize()
 )
 
+/**
+ * Resolves an output directory shared by all variants whose generation [configuration] is the same.
+ */
+fun resolveSharedOutputDir(project: Project, plugin: String, configuration: String): File {
+  val digest = MessageDigest.getInstance("SHA-256").digest(configuration.toByteArray(Charsets.UTF_8))
+  val hash = digest.take(8).joinToString("") { String.format("%02x", it) }
+  return project.file("${project.projectDir}/build/generated/source/$plugin/shared/$hash".sanitize())
+}
+
+/**
+ * Resolves the buildscript classpath visible to [pluginClassLoader], which is where stencil and trait providers are
+ * loaded from. Gradle's own classpath is left out.
+ */
+fun resolveProviderClasspath(project: Project, pluginClassLoader: ClassLoader): FileCollection {
+  val gradleClassLoaders = generateSequence(DefaultTask::class.java.classLoader) { it.parent }.toSet()
+  val files = generateSequence(pluginClassLoader) { it.parent }
+      .takeWhile { it !in gradleClassLoaders }
+      .filterIsInstance<URLClassLoader>()
+      .flatMap { it.urLs.asSequence() }
+      .filter { it.protocol == "file" }
+      .map { File(it.toURI()) }
+      .toList()
+  return project.files(files)
+}
+
 fun String.sanitize(): String = replace('/', File.separatorChar)